@@ -0,0 +1,127 @@
+package Benchmarks;
+
+import Animations.AllocationMeter;
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.LevelInformation;
+import Level.ScoreTrackingListener;
+import Rendering.NullDrawSurface;
+import Screens.GameLevel;
+import Screens.Level1;
+import Screens.Level2;
+
+/**
+ * The Benchmarks.AllocationCheck class plays levels headless with a strict Animations.AllocationMeter and a budget
+ * of 0 bytes, so the check fails as soon as a steady tick allocates anything.
+ * Every level is seeded, so its special blocks and the balls start at the same places every time, and the paddle
+ * never moves. Every level is played twice the same way: the first time is not measured, so every class and every
+ * path of the code the level needs is loaded and resolved, which allocates once. The second time, every tick is
+ * drawn as a frame and measured, except the steady ones.
+ * A tick is steady when it removes no block and no ball, and does not follow a tick that removed a ball.
+ * A block removal builds the score text again and copies the hit listeners of the block, and a ball removal
+ * gives the removed ball a Sprites.BallSystem of its own when it is applied, on the next tick: those ticks
+ * allocate a few hundred bytes, so they are counted but not measured. The first frame of a level, which draws
+ * its cached images, is not measured either.
+ * The check runs in the interpreter only, with -Xint: the interpreter allocates exactly what the code does,
+ * while the compiler removes some allocations, and the JVM allocates a few bytes of its own when compiled
+ * code falls back to the interpreter, in ticks that differ from run to run.
+ * Exits with status 1 if a steady tick allocated, or if the JVM cannot count allocations or compiles the code.
+ */
+public class AllocationCheck {
+    // The seeds of the levels, Level1 and Level2 in turn: in the first two, balls hit a block that releases a ball
+    private static final long[] SEEDS = {16, 33, 1, 2};
+    // A level that is still running after this many ticks is taken to never end
+    private static final int MAX_TICKS = 1000000;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        if (!AllocationMeter.isSupported()) {
+            System.out.println("Allocations: this JVM does not count the bytes allocated by a thread");
+            System.exit(1);
+        }
+        if (!System.getProperty("java.vm.info", "").contains("interpreted mode")) {
+            System.out.println("Allocations: run with -Xint, so what the code allocates is not left to the compiler");
+            System.exit(1);
+        }
+        Counter score = new Counter(0);
+        ScoreTrackingListener scoreTrackingListener = new ScoreTrackingListener(score);
+        AllocationMeter meter = new AllocationMeter(0);
+        meter.setStrict(true);
+        int eventTicks = 0;
+        try {
+            for (int i = 0; i < SEEDS.length; i++) {
+                LevelInformation info = level(i, SEEDS[i]);
+                play(info, SEEDS[i], scoreTrackingListener, null);
+                eventTicks += play(info, SEEDS[i], scoreTrackingListener, meter);
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("Allocations: " + e.getMessage() + ", after " + meter);
+            System.exit(1);
+        }
+        System.out.println("Allocations: " + meter + ", " + eventTicks + " ticks removing blocks or balls left out");
+    }
+
+    /**
+     * Creates a level whose special blocks are laid out the same way every time.
+     *
+     * @param index the position of the level in the check, Level1 for even ones and Level2 for odd ones
+     * @param seed  the seed of the places of its special blocks
+     * @return the level
+     */
+    private static LevelInformation level(int index, long seed) {
+        if (index % 2 == 0) {
+            Level1 level = new Level1();
+            level.setSeed(seed);
+            return level;
+        }
+        Level2 level = new Level2();
+        level.setSeed(seed);
+        return level;
+    }
+
+    /**
+     * Plays a level until it is over, drawing every tick, and measures its steady ticks.
+     *
+     * @param info                  the level
+     * @param seed                  the seed of the places its balls start from
+     * @param scoreTrackingListener the listener of the score, shared by all the levels
+     * @param meter                 the meter of the steady ticks, or null to measure nothing
+     * @return the number of ticks that were not steady
+     */
+    private static int play(LevelInformation info, long seed, ScoreTrackingListener scoreTrackingListener,
+                            AllocationMeter meter) {
+        Counter score = scoreTrackingListener.getCurrentScore();
+        HeadlessLevel level = new HeadlessLevel(info, scoreTrackingListener, key -> false,
+                new NullDrawSurface(800, 600));
+        GameLevel game = level.getLevel();
+        game.setSeed(seed);
+        level.initialize();
+        level.tick();
+        level.render();
+        int eventTicks = 0;
+        boolean ballRemoved = false;
+        while (!level.isOver() && level.getTicks() < MAX_TICKS) {
+            int scoreBefore = score.getValue();
+            int ballsBefore = game.getRemainingBalls();
+            int blocksBefore = game.getEnvironment().size();
+            long mark = meter == null ? 0 : meter.begin();
+            level.tick();
+            level.render();
+            boolean steady = !ballRemoved && score.getValue() == scoreBefore
+                    && game.getEnvironment().size() == blocksBefore;
+            ballRemoved = game.getRemainingBalls() != ballsBefore;
+            if (steady && !ballRemoved) {
+                if (meter != null) {
+                    meter.end(mark);
+                }
+            } else {
+                eventTicks++;
+            }
+        }
+        return eventTicks;
+    }
+}
@@ -0,0 +1,172 @@
+package Benchmarks;
+
+import Animations.Animation;
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.LevelInformation;
+import Level.ScoreTrackingListener;
+import Rendering.BatchingDrawSurface;
+import Rendering.ImageDrawSurface;
+import Rendering.NullDrawSurface;
+import Screens.GameLevel;
+import Screens.GameOver;
+import Screens.Level1;
+import Screens.Level2;
+import Screens.PauseScreen;
+import Screens.Win;
+import biuoop.KeyboardSensor;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The Benchmarks.BatchingCheck class checks that a frame recorded by a Rendering.BatchingDrawSurface, which sends
+ * the drawings of a frame grouped by color and primitive, looks exactly like the same frame drawn call by call.
+ * Seeded levels are played with the paddle moving, the second one with 400 extra balls of three colors, and every
+ * tick is drawn both ways at an interpolated position, every tenth frame being compared pixel by pixel.
+ * The pause, win and game over screens are compared too. Prints how many times a frame changes the color when
+ * drawn call by call and when batched.
+ * Exits with status 1 if any frame differs.
+ */
+public class BatchingCheck {
+    // The seeds of Level1 and Level2
+    private static final long[] SEEDS = {16, 33};
+    private static final int[] EXTRA_BALLS = {0, 400};
+    private static final Color[] BALL_COLORS = {Color.red, Color.blue, Color.green};
+    private static final int MAX_TICKS = 3000;
+    // Only every this many frames is compared, since comparing is slower than drawing
+    private static final int COMPARE_EVERY = 10;
+    // The paddle keeps going the same way, or standing still, for this many ticks
+    private static final int MOVE_TICKS = 40;
+    private static int tick;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        KeyboardSensor keyboard = key -> {
+            int move = (tick / MOVE_TICKS) % 3;
+            return key.equals(KeyboardSensor.LEFT_KEY) ? move == 0 : key.equals(KeyboardSensor.RIGHT_KEY) && move == 1;
+        };
+        ImageDrawSurface direct = new ImageDrawSurface(800, 600, false);
+        ImageDrawSurface batched = new ImageDrawSurface(800, 600, false);
+        BatchingDrawSurface batch = new BatchingDrawSurface(800, 600);
+        ColorCounter counter = new ColorCounter();
+        int frames = 0;
+        int compared = 0;
+        int differ = 0;
+        long batchedChanges = 0;
+        for (int i = 0; i < SEEDS.length; i++) {
+            HeadlessLevel level = level(i, SEEDS[i], keyboard);
+            GameLevel game = level.getLevel();
+            Random random = new Random(SEEDS[i]);
+            for (int b = 0; b < EXTRA_BALLS[i]; b++) {
+                game.getBallSystem().spawn(60 + random.nextInt(680), 300 + random.nextInt(200), 4,
+                        BALL_COLORS[b % BALL_COLORS.length], random.nextDouble() * 6 - 3, -3);
+            }
+            game.setRemainingBalls(EXTRA_BALLS[i]);
+            for (tick = 0; tick < MAX_TICKS && !level.isOver(); tick++) {
+                level.tick();
+                double alpha = (tick % 7) / 7.0;
+                game.render(batch, alpha);
+                batch.flush(batched);
+                batchedChanges += batch.getColorChanges();
+                game.render(counter, alpha);
+                frames++;
+                if (tick % COMPARE_EVERY == 0) {
+                    game.render(direct, alpha);
+                    compared++;
+                    if (!same(direct, batched)) {
+                        differ++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Batching: %d frames, %d compared, %d color changes per frame call by call,"
+                + " %d batched, %d frames differ%n", frames, compared, counter.changes / frames,
+                batchedChanges / frames, differ);
+
+        KeyboardSensor none = key -> false;
+        ScoreTrackingListener score = new ScoreTrackingListener(new Counter(1234));
+        Animation[] screens = {new PauseScreen(none), new Win(none, score), new GameOver(none, score)};
+        int screensDiffer = 0;
+        for (Animation screen : screens) {
+            direct = new ImageDrawSurface(800, 600, false);
+            batched = new ImageDrawSurface(800, 600, false);
+            screen.doOneFrame(direct);
+            screen.doOneFrame(batch);
+            batch.flush(batched);
+            if (!same(direct, batched)) {
+                screensDiffer++;
+            }
+        }
+        System.out.println("Batching: " + screens.length + " screens, " + screensDiffer + " screens differ");
+        if (differ > 0 || screensDiffer > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates a seeded level, ready to be played.
+     *
+     * @param index    the position of the level in the check, Level1 for even ones and Level2 for odd ones
+     * @param seed     the seed of the places of its special blocks and balls
+     * @param keyboard the keyboard sensor the paddle reads
+     * @return the level
+     */
+    private static HeadlessLevel level(int index, long seed, KeyboardSensor keyboard) {
+        LevelInformation info;
+        if (index % 2 == 0) {
+            Level1 level = new Level1();
+            level.setSeed(seed);
+            info = level;
+        } else {
+            Level2 level = new Level2();
+            level.setSeed(seed);
+            info = level;
+        }
+        HeadlessLevel level = new HeadlessLevel(info, new ScoreTrackingListener(new Counter(0)), keyboard,
+                new NullDrawSurface(800, 600));
+        level.getLevel().setSeed(seed);
+        level.initialize();
+        return level;
+    }
+
+    /**
+     * Checks whether two frames have the same pixels.
+     *
+     * @param a the first frame
+     * @param b the second frame
+     * @return true if every pixel is the same, false otherwise
+     */
+    private static boolean same(ImageDrawSurface a, ImageDrawSurface b) {
+        return Arrays.equals(a.getImage().getRGB(0, 0, 800, 600, null, 0, 800),
+                b.getImage().getRGB(0, 0, 800, 600, null, 0, 800));
+    }
+
+    /**
+     * A surface that draws nothing, and counts the times the color is changed.
+     */
+    private static class ColorCounter extends NullDrawSurface {
+        private long changes;
+        private Color current;
+
+        /**
+         * Constructs a ColorCounter for a screen of 800 by 600 pixels.
+         */
+        ColorCounter() {
+            super(800, 600);
+        }
+
+        @Override
+        public void setColor(Color color) {
+            if (!color.equals(current)) {
+                changes++;
+                current = color;
+            }
+        }
+    }
+}
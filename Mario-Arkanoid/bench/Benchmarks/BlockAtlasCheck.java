@@ -0,0 +1,94 @@
+package Benchmarks;
+
+import Geometry.Point;
+import Rendering.ImageDrawSurface;
+import Screens.Level1;
+import Screens.Level2;
+import Sprites.Block;
+import Sprites.BlockAtlas;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Benchmarks.BlockAtlasCheck class checks that blocks copied from their image in the Sprites.BlockAtlas look
+ * exactly like blocks drawn with drawing calls. The blocks of seeded Level1 and Level2 layouts, with special blocks
+ * among them, and a block at fractional coordinates are drawn once with the atlas on and once with it off,
+ * and the two frames must have the same pixels. Prints the time a frame of those blocks takes either way.
+ * Exits with status 1 if any pixel differs.
+ */
+public class BlockAtlasCheck {
+    // The seeds of Level1 and Level2: both layouts have special blocks of both types
+    private static final long LEVEL1_SEED = 16;
+    private static final long LEVEL2_SEED = 33;
+    private static final int TIMED_FRAMES = 2000;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        List<Block> blocks = new ArrayList<>();
+        Level1 level1 = new Level1();
+        level1.setSeed(LEVEL1_SEED);
+        blocks.addAll(level1.blocks());
+        Level2 level2 = new Level2();
+        level2.setSeed(LEVEL2_SEED);
+        blocks.addAll(level2.blocks());
+        blocks.add(new Block(new Point(33.7, 71.2), 40, 40, new Color(0x87, 0x09, 0x72)));
+
+        ImageDrawSurface atlas = new ImageDrawSurface(800, 600, false);
+        ImageDrawSurface vector = new ImageDrawSurface(800, 600, false);
+        BlockAtlas.setEnabled(true);
+        drawAll(blocks, atlas);
+        long atlasNanos = time(blocks, atlas);
+        BlockAtlas.setEnabled(false);
+        drawAll(blocks, vector);
+        long vectorNanos = time(blocks, vector);
+        BlockAtlas.setEnabled(true);
+
+        int differ = 0;
+        for (int y = 0; y < 600; y++) {
+            for (int x = 0; x < 800; x++) {
+                if (atlas.getImage().getRGB(x, y) != vector.getImage().getRGB(x, y)) {
+                    differ++;
+                }
+            }
+        }
+        System.out.printf("Block atlas: %d blocks, %.1f us per frame from images, %.1f us with drawing calls,"
+                + " %d pixels differ%n", blocks.size(), atlasNanos / 1e3 / TIMED_FRAMES,
+                vectorNanos / 1e3 / TIMED_FRAMES, differ);
+        if (differ > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Draws all the blocks on a surface.
+     *
+     * @param blocks the blocks
+     * @param d      the surface
+     */
+    private static void drawAll(List<Block> blocks, ImageDrawSurface d) {
+        for (Block block : blocks) {
+            block.drawOn(d);
+        }
+    }
+
+    /**
+     * Draws all the blocks on a surface many times over.
+     *
+     * @param blocks the blocks
+     * @param d      the surface
+     * @return the time it took, in nanoseconds
+     */
+    private static long time(List<Block> blocks, ImageDrawSurface d) {
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_FRAMES; i++) {
+            drawAll(blocks, d);
+        }
+        return System.nanoTime() - start;
+    }
+}
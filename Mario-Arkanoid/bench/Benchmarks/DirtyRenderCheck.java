@@ -0,0 +1,96 @@
+package Benchmarks;
+
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.LevelInformation;
+import Level.ScoreTrackingListener;
+import Rendering.ImageDrawSurface;
+import Screens.Level1;
+import Screens.Level2;
+import biuoop.KeyboardSensor;
+
+import java.util.Arrays;
+
+/**
+ * The Benchmarks.DirtyRenderCheck class checks that the dirty rendering mode of a level, which only draws again
+ * the parts of the screen that changed, gives the same frames as drawing the whole scene every frame.
+ * Every seeded level is played twice side by side, once in each mode, with the paddle going left, right and
+ * standing still in turn, and a frame of each is drawn after every tick, including the tick that ends the level.
+ * The two frames must have the same pixels.
+ * Exits with status 1 if any frame differs.
+ */
+public class DirtyRenderCheck {
+    // The seeds of the levels, Level1 and Level2 in turn
+    private static final long[] SEEDS = {16, 33, 1, 2};
+    private static final int MAX_TICKS = 6000;
+    // The paddle keeps going the same way, or standing still, for this many ticks
+    private static final int MOVE_TICKS = 40;
+    private static int tick;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        KeyboardSensor keyboard = key -> {
+            int move = (tick / MOVE_TICKS) % 3;
+            return key.equals(KeyboardSensor.LEFT_KEY) ? move == 0 : key.equals(KeyboardSensor.RIGHT_KEY) && move == 1;
+        };
+        int frames = 0;
+        int differ = 0;
+        for (int i = 0; i < SEEDS.length; i++) {
+            ImageDrawSurface dirtyFrame = new ImageDrawSurface(800, 600, false);
+            ImageDrawSurface fullFrame = new ImageDrawSurface(800, 600, false);
+            HeadlessLevel dirty = level(i, SEEDS[i], keyboard, dirtyFrame);
+            HeadlessLevel full = level(i, SEEDS[i], keyboard, fullFrame);
+            dirty.getLevel().setDirtyRendering(true);
+            for (tick = 0; tick < MAX_TICKS && !full.isOver(); tick++) {
+                dirty.tick();
+                full.tick();
+                dirty.render();
+                full.render();
+                frames++;
+                int[] dirtyPixels = dirtyFrame.getImage().getRGB(0, 0, 800, 600, null, 0, 800);
+                int[] fullPixels = fullFrame.getImage().getRGB(0, 0, 800, 600, null, 0, 800);
+                if (!Arrays.equals(dirtyPixels, fullPixels)) {
+                    if (differ == 0) {
+                        System.out.println("Dirty rendering: first difference after tick " + tick
+                                + " of level " + i);
+                    }
+                    differ++;
+                }
+            }
+        }
+        System.out.println("Dirty rendering: " + frames + " frames, " + differ + " frames differ");
+        if (differ > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates a seeded level, ready to be played.
+     *
+     * @param index    the position of the level in the check, Level1 for even ones and Level2 for odd ones
+     * @param seed     the seed of the places of its special blocks and balls
+     * @param keyboard the keyboard sensor the paddle reads
+     * @param frame    the surface its frames are drawn on
+     * @return the level
+     */
+    private static HeadlessLevel level(int index, long seed, KeyboardSensor keyboard, ImageDrawSurface frame) {
+        LevelInformation info;
+        if (index % 2 == 0) {
+            Level1 level = new Level1();
+            level.setSeed(seed);
+            info = level;
+        } else {
+            Level2 level = new Level2();
+            level.setSeed(seed);
+            info = level;
+        }
+        HeadlessLevel level = new HeadlessLevel(info, new ScoreTrackingListener(new Counter(0)), keyboard, frame);
+        level.getLevel().setSeed(seed);
+        level.initialize();
+        return level;
+    }
+}
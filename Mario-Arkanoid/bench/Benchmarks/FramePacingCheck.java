@@ -0,0 +1,143 @@
+package Benchmarks;
+
+import Animations.FramePacer;
+import Animations.FrameStats;
+import Animations.LoadMonitor;
+import Rendering.DetailTier;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The Benchmarks.FramePacingCheck class checks the parts of Animations.AnimationRunner that keep and measure time.
+ * An Animations.FrameStats histogram is given random times, and its percentiles must be within the width
+ * of a bucket, an eighth, of the exact ones. An Animations.LoadMonitor must lower the tier under a steady
+ * overload, raise it back once the load is low, and keep the full detail under spiky frames that average 85%
+ * of the budget. An Animations.FramePacer paces frames that take 3 to 12 ms at 59 frames per second, and their
+ * average period must be within 1% of the expected one: the pacer keeps well within a hundredth of a percent
+ * on an idle machine, but the check leaves room for a busy one.
+ * Exits with status 1 if anything is off.
+ */
+public class FramePacingCheck {
+    private static final long NANOS_PER_FRAME = 1000000000L / 59;
+    private static final int TIMES = 100000;
+    private static final double[] SHARES = {0.01, 0.1, 0.5, 0.9, 0.99, 0.999};
+    private static final double BUCKET_WIDTH = 1.0 / 8;
+    private static final int PACED_FRAMES = 300;
+    private static final double PERIOD_TOLERANCE = 0.01;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        int errors = checkPercentiles() + checkLoad() + checkPacing();
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the percentiles of a histogram with the exact percentiles of the same random times.
+     *
+     * @return the number of errors
+     */
+    private static int checkPercentiles() {
+        Random random = new Random(1);
+        FrameStats stats = new FrameStats();
+        long[] times = new long[TIMES];
+        for (int i = 0; i < TIMES; i++) {
+            // Spread over 1 us to about 1 s, evenly on a log scale
+            times[i] = (long) Math.pow(10, 3 + 6 * random.nextDouble());
+            stats.record(FrameStats.Phase.DRAW, times[i]);
+        }
+        Arrays.sort(times);
+        int errors = 0;
+        for (double share : SHARES) {
+            long exact = times[(int) Math.ceil(share * TIMES) - 1];
+            long found = stats.getPercentile(FrameStats.Phase.DRAW, share);
+            if (Math.abs(found - exact) > BUCKET_WIDTH * exact) {
+                System.out.println("Frame pacing: percentile " + share + " is " + found + " ns, expected " + exact);
+                errors++;
+            }
+        }
+        long max = stats.getMax(FrameStats.Phase.DRAW);
+        if (max != times[TIMES - 1] || stats.getCount(FrameStats.Phase.DRAW) != TIMES) {
+            System.out.println("Frame pacing: " + stats.getCount(FrameStats.Phase.DRAW) + " times up to " + max
+                    + " ns, expected " + TIMES + " up to " + times[TIMES - 1]);
+            errors++;
+        }
+        System.out.println("Frame pacing: " + SHARES.length + " percentiles of " + TIMES + " times, " + errors
+                + " errors");
+        return errors;
+    }
+
+    /**
+     * Feeds a load monitor a steady overload, a light load, and then spiky frames under the budget on average.
+     *
+     * @return the number of errors
+     */
+    private static int checkLoad() {
+        LoadMonitor monitor = new LoadMonitor(NANOS_PER_FRAME);
+        int errors = 0;
+        if (feed(monitor, NANOS_PER_FRAME * 3 / 2, 0, 600) < 0 || monitor.getTier() == DetailTier.FULL) {
+            System.out.println("Frame pacing: frames over the budget did not lower the tier");
+            errors++;
+        }
+        feed(monitor, NANOS_PER_FRAME / 3, 0, 3000);
+        if (monitor.getTier() != DetailTier.FULL) {
+            System.out.println("Frame pacing: frames well under the budget did not bring back the full detail");
+            errors++;
+        }
+        int changed = feed(monitor, NANOS_PER_FRAME / 2, NANOS_PER_FRAME * 4, 6000);
+        if (changed >= 0) {
+            System.out.println("Frame pacing: spiky frames at 85% of the budget changed the tier at frame " + changed);
+            errors++;
+        }
+        System.out.println("Frame pacing: load monitor, " + errors + " errors");
+        return errors;
+    }
+
+    /**
+     * Adds frame times to a load monitor.
+     *
+     * @param monitor the monitor
+     * @param nanos   the time of most frames
+     * @param spike   the time of every tenth frame, or 0 for frames that all take the same time
+     * @param frames  the number of frames
+     * @return the first frame that changed the tier, or -1 if none did
+     */
+    private static int feed(LoadMonitor monitor, long nanos, long spike, int frames) {
+        int first = -1;
+        for (int i = 0; i < frames; i++) {
+            if (monitor.add(spike > 0 && i % 10 == 0 ? spike : nanos) && first < 0) {
+                first = i;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Paces frames that keep the processor busy for a varying time, and measures their average period.
+     *
+     * @return the number of errors
+     */
+    private static int checkPacing() {
+        FramePacer pacer = new FramePacer(NANOS_PER_FRAME);
+        long start = System.nanoTime();
+        for (int i = 0; i < PACED_FRAMES; i++) {
+            long busyUntil = System.nanoTime() + (i % 10 == 0 ? 12000000 : 3000000);
+            while (System.nanoTime() < busyUntil) {
+                // The frame keeps the processor busy, as drawing it would
+                continue;
+            }
+            pacer.waitForNextFrame();
+        }
+        double period = (double) (System.nanoTime() - start) / PACED_FRAMES;
+        double error = Math.abs(period - NANOS_PER_FRAME) / NANOS_PER_FRAME;
+        System.out.printf("Frame pacing: %d frames, %.4f ms per frame for %.4f expected, %.3f%% off%n",
+                PACED_FRAMES, period / 1e6, NANOS_PER_FRAME / 1e6, error * 100);
+        return error > PERIOD_TOLERANCE ? 1 : 0;
+    }
+}
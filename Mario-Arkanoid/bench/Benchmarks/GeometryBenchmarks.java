@@ -0,0 +1,159 @@
+package Benchmarks;
+
+import Collidables.Collidable;
+import Collidables.CollisionInfo;
+import Geometry.Line;
+import Geometry.Point;
+import Geometry.Rectangle;
+import Level.GameEnvironment;
+import Screens.Level1;
+import Screens.Level2;
+import Sprites.Block;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Benchmarks.GeometryBenchmarks class measures the geometry and collision methods that run for every
+ * ball on every frame. Each method is measured on the block layouts of Level1 and Level2, and on a
+ * synthetic layout of 10,000 small blocks, all inside the bounds of the game.
+ * Segments are ball steps: short, in random directions, and either anywhere in the game area or
+ * starting next to a block, so that many of them touch it.
+ * Run it with the name of a method or layout as argument to only measure the matching benchmarks.
+ */
+public class GeometryBenchmarks {
+    // The number of prepared segments, a power of two so an index can be masked into range
+    private static final int SEGMENTS = 4096;
+    private static final int MASK = SEGMENTS - 1;
+    // Ball steps in the game are a few pixels long
+    private static final double MIN_STEP = 2;
+    private static final double MAX_STEP = 10;
+    // How far from its block a segment aimed at a block starts
+    private static final double NEAR = 10;
+    private static final int SYNTHETIC_COLUMNS = 100;
+    private static final int SYNTHETIC_ROWS = 100;
+    private static final int BALL_RADIUS = 4;
+    private static final long SEED = 42;
+
+    private String name;
+    private Rectangle[] rectangles;
+    private GameEnvironment environment;
+    private Line[] anywhere = new Line[SEGMENTS];
+    private Line[] nearBlock = new Line[SEGMENTS];
+    private Rectangle[] target = new Rectangle[SEGMENTS];
+    private Line[] targetEdge = new Line[SEGMENTS];
+    private CollisionInfo collision = new CollisionInfo();
+
+    /**
+     * Constructs the inputs of the benchmarks for a layout of blocks.
+     * The bounds of the game are added around the blocks.
+     *
+     * @param name   the name of the layout
+     * @param blocks the blocks of the layout
+     */
+    public GeometryBenchmarks(String name, List<Block> blocks) {
+        this.name = name;
+        List<Collidable> collidables = new ArrayList<>();
+        collidables.add(new Block(new Point(0, 20), 800, 30, Color.DARK_GRAY));
+        collidables.add(new Block(new Point(0, 50), 30, 800, Color.DARK_GRAY));
+        collidables.add(new Block(new Point(30, 600), 740, 30, Color.DARK_GRAY));
+        collidables.add(new Block(new Point(770, 50), 30, 800, Color.DARK_GRAY));
+        collidables.addAll(blocks);
+        this.environment = new GameEnvironment(collidables);
+        this.rectangles = new Rectangle[collidables.size()];
+        for (int i = 0; i < rectangles.length; i++) {
+            rectangles[i] = collidables.get(i).getCollisionRectangle();
+        }
+        Random random = new Random(SEED);
+        for (int i = 0; i < SEGMENTS; i++) {
+            anywhere[i] = step(random, 30 + random.nextDouble() * 740, 50 + random.nextDouble() * 550);
+            Rectangle rect = rectangles[random.nextInt(rectangles.length)];
+            double x = rect.getUpperLeft().getX() - NEAR + random.nextDouble() * (rect.getWidth() + 2 * NEAR);
+            double y = rect.getUpperLeft().getY() - NEAR + random.nextDouble() * (rect.getHeight() + 2 * NEAR);
+            nearBlock[i] = step(random, x, y);
+            target[i] = rect;
+            targetEdge[i] = rect.getEdges()[random.nextInt(4)];
+        }
+    }
+
+    /**
+     * Runs the benchmarks whose names contain the first argument, or all of them if there is none.
+     *
+     * @param args an optional part of the names of the benchmarks to run
+     */
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        Harness harness = new Harness(5, 5, 500);
+        List<GeometryBenchmarks> layouts = new ArrayList<>();
+        layouts.add(new GeometryBenchmarks("level1", new Level1().blocks()));
+        layouts.add(new GeometryBenchmarks("level2", new Level2().blocks()));
+        layouts.add(new GeometryBenchmarks("synthetic10k", syntheticBlocks()));
+        for (GeometryBenchmarks layout : layouts) {
+            layout.run(harness, filter);
+        }
+        System.out.println("(sink " + harness.getSink() + ")");
+    }
+
+    /**
+     * Measures every benchmark of this layout whose name contains the filter.
+     *
+     * @param harness the harness that measures the benchmarks
+     * @param filter  a part of the names of the benchmarks to run
+     */
+    public void run(Harness harness, String filter) {
+        measure(harness, filter, "Line.isIntersecting", i ->
+                nearBlock[i & MASK].isIntersecting(targetEdge[i & MASK]) ? 1 : 0);
+        measure(harness, filter, "Line.intersectionWith", i -> {
+            Point p = nearBlock[i & MASK].intersectionWith(targetEdge[i & MASK]);
+            return p == null ? 0 : p.getX();
+        });
+        measure(harness, filter, "Rectangle.intersectionPoints", i ->
+                target[i & MASK].intersectionPoints(nearBlock[i & MASK]).size());
+        measure(harness, filter, "Line.closestIntersectionToStartOfLine", i -> {
+            Point p = nearBlock[i & MASK].closestIntersectionToStartOfLine(target[i & MASK]);
+            return p == null ? 0 : p.getX();
+        });
+        measure(harness, filter, "GameEnvironment.getClosestCollision", i -> {
+            CollisionInfo info = environment.getClosestCollision(anywhere[i & MASK]);
+            return info == null ? 0 : info.collisionTime();
+        });
+        measure(harness, filter, "GameEnvironment.findClosestCollision(ball)", i -> {
+            Line l = anywhere[i & MASK];
+            return environment.findClosestCollision(l.getX1(), l.getY1(), l.getX2(), l.getY2(), BALL_RADIUS,
+                    collision) ? collision.collisionTime() : 0;
+        });
+    }
+
+    private void measure(Harness harness, String filter, String benchmark, Harness.Operation operation) {
+        String fullName = benchmark + " [" + name + ", " + (rectangles.length - 4) + " blocks]";
+        if (fullName.contains(filter)) {
+            harness.measure(fullName, operation);
+        }
+    }
+
+    private static Line step(Random random, double x, double y) {
+        double angle = random.nextDouble() * 2 * Math.PI;
+        double length = MIN_STEP + random.nextDouble() * (MAX_STEP - MIN_STEP);
+        return new Line(x, y, x + Math.cos(angle) * length, y + Math.sin(angle) * length);
+    }
+
+    /**
+     * Creates a dense layout of small blocks with one pixel gaps between them, filling the game area.
+     *
+     * @return the blocks of the layout
+     */
+    private static List<Block> syntheticBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        double width = 740.0 / SYNTHETIC_COLUMNS;
+        double height = 500.0 / SYNTHETIC_ROWS;
+        for (int row = 0; row < SYNTHETIC_ROWS; row++) {
+            for (int column = 0; column < SYNTHETIC_COLUMNS; column++) {
+                blocks.add(new Block(new Point(30 + column * width, 60 + row * height), width - 1, height - 1,
+                        Color.ORANGE));
+            }
+        }
+        return blocks;
+    }
+}
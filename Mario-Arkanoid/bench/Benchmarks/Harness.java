@@ -0,0 +1,139 @@
+package Benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The Benchmarks.Harness class measures the throughput and the allocation rate of small operations.
+ * Every operation is first run for a few warmup rounds, so the JIT compiles it, and then for a few
+ * measured rounds. The throughput is the mean over the measured rounds, with the spread between them.
+ * The allocation is read from the per-thread allocation counter of the JVM, when it has one.
+ * The results of the operations are summed into a field, so the JIT cannot drop the work.
+ */
+public class Harness {
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    // The number of calls between two looks at the clock
+    private static final int BATCH = 1024;
+
+    private int warmupRounds;
+    private int measuredRounds;
+    private long roundNanos;
+    private double sink;
+
+    /**
+     * Constructs a Harness that runs every operation for the given rounds.
+     *
+     * @param warmupRounds   the number of rounds run before measuring
+     * @param measuredRounds the number of rounds measured
+     * @param roundMillis    the length of a single round, in milliseconds
+     */
+    public Harness(int warmupRounds, int measuredRounds, long roundMillis) {
+        this.warmupRounds = warmupRounds;
+        this.measuredRounds = measuredRounds;
+        this.roundNanos = roundMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Measures an operation and prints one line with its results.
+     *
+     * @param name      the name printed for the operation
+     * @param operation the operation to measure
+     */
+    public void measure(String name, Operation operation) {
+        for (int i = 0; i < warmupRounds; i++) {
+            round(operation);
+        }
+        double[] rates = new double[measuredRounds];
+        long calls = 0;
+        long nanos = 0;
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < measuredRounds; i++) {
+            long start = System.nanoTime();
+            long roundCalls = round(operation);
+            long roundTime = System.nanoTime() - start;
+            rates[i] = roundCalls * NANOS_PER_SECOND / roundTime;
+            calls += roundCalls;
+            nanos += roundTime;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        double mean = 0;
+        for (double rate : rates) {
+            mean += rate;
+        }
+        mean /= rates.length;
+        double spread = 0;
+        for (double rate : rates) {
+            spread = Math.max(spread, Math.abs(rate - mean));
+        }
+        if (allocatedBefore < 0) {
+            System.out.printf("%-72s %14.0f ops/s  +- %5.1f%%  %12s%n", name, mean, 100 * spread / mean,
+                    "n/a");
+            return;
+        }
+        System.out.printf("%-72s %14.0f ops/s  +- %5.1f%%  %8.2f B/op  %9.2f MB/s%n", name, mean,
+                100 * spread / mean, (double) allocated / calls,
+                allocated / BYTES_PER_MEGABYTE / (nanos / NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the sum of the results of all the operations run so far.
+     * Printing it once at the end keeps the JIT from dropping the work of the operations.
+     *
+     * @return the sum of the results
+     */
+    public double getSink() {
+        return sink;
+    }
+
+    /**
+     * Runs an operation in batches until a round is over.
+     *
+     * @return the number of calls made
+     */
+    private long round(Operation operation) {
+        long end = System.nanoTime() + roundNanos;
+        long calls = 0;
+        double sum = 0;
+        int next = 0;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < BATCH; i++) {
+                sum += operation.run(next++);
+            }
+            calls += BATCH;
+        }
+        sink += sum;
+        return calls;
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread.
+     *
+     * @return the number of bytes, or -1 if the JVM does not count them
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An operation to measure.
+     */
+    public interface Operation {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param i the number of the call, to pick the input of this call
+         * @return a result of the call, summed so the work cannot be dropped
+         */
+        double run(int i);
+    }
+}
@@ -0,0 +1,91 @@
+package Benchmarks;
+
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.LevelInformation;
+import Level.ScoreTrackingListener;
+import Rendering.NullDrawSurface;
+import Screens.GameLevel;
+import Screens.Level1;
+import Screens.Level2;
+import Sprites.Velocity;
+
+import java.awt.Color;
+import java.util.Random;
+
+/**
+ * The Benchmarks.HitEventQueueCheck class checks that the hits of a tick, queued by the Sprites.HitEventQueue of the
+ * level and sent at the end of the tick, score and remove every block once, however many balls hit it in that tick.
+ * Seeded levels are played with thousands of extra balls, so many blocks are hit by several balls in the same tick.
+ * After every tick the queue must be empty, and at the end the score must be 5 points for every block removed,
+ * and 100 more if the level was cleared.
+ * Exits with status 1 if a tick leaves hits in the queue, or if the score does not match the blocks removed.
+ */
+public class HitEventQueueCheck {
+    // The seeds of the levels, Level1 and Level2 in turn
+    private static final long[] SEEDS = {16, 33};
+    private static final int EXTRA_BALLS = 3000;
+    private static final int MAX_TICKS = 300;
+    // The bounds of the screen and the paddle, which are left once the level is cleared
+    private static final int LEFT_WHEN_CLEARED = 5;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        int errors = 0;
+        for (int i = 0; i < SEEDS.length; i++) {
+            Counter score = new Counter(0);
+            HeadlessLevel level = new HeadlessLevel(level(i, SEEDS[i]), new ScoreTrackingListener(score),
+                    key -> false, new NullDrawSurface(800, 600));
+            GameLevel game = level.getLevel();
+            game.setSeed(SEEDS[i]);
+            level.initialize();
+            int blocksBefore = game.getEnvironment().size();
+            Random random = new Random(SEEDS[i]);
+            for (int b = 0; b < EXTRA_BALLS; b++) {
+                Velocity v = Velocity.fromAngleAndSpeed(random.nextInt(360), 3 + random.nextInt(5));
+                game.getBallSystem().spawn(50 + random.nextInt(700), 300 + random.nextInt(250), 4, Color.RED,
+                        v.getDx(), v.getDy());
+            }
+            game.setRemainingBalls(EXTRA_BALLS);
+            int queued = 0;
+            while (!level.isOver() && level.getTicks() < MAX_TICKS) {
+                level.tick();
+                queued += game.getHitEvents().size();
+            }
+            int blocksAfter = game.getEnvironment().size();
+            int removed = blocksBefore - blocksAfter;
+            int expected = 5 * removed + (blocksAfter == LEFT_WHEN_CLEARED ? 100 : 0);
+            System.out.println("Hit events: level " + i + ", " + level.getTicks() + " ticks, " + removed
+                    + " blocks removed, score " + score.getValue() + " for " + expected + ", " + queued
+                    + " hits left queued");
+            if (score.getValue() != expected || queued > 0) {
+                errors++;
+            }
+        }
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates a level whose special blocks are laid out the same way every time.
+     *
+     * @param index the position of the level in the check, Level1 for even ones and Level2 for odd ones
+     * @param seed  the seed of the places of its special blocks
+     * @return the level
+     */
+    private static LevelInformation level(int index, long seed) {
+        if (index % 2 == 0) {
+            Level1 level = new Level1();
+            level.setSeed(seed);
+            return level;
+        }
+        Level2 level = new Level2();
+        level.setSeed(seed);
+        return level;
+    }
+}
@@ -0,0 +1,104 @@
+package Benchmarks;
+
+import ListenersAndNotifier.HitListener;
+import ListenersAndNotifier.HitListenerRegistry;
+
+/**
+ * The Benchmarks.HitListenerRegistryCheck class changes the listeners of a ListenersAndNotifier.HitListenerRegistry
+ * while a hit is being notified, and checks which listeners are notified of that hit and of the next one.
+ * Every listener writes its letter into a log, and the hits of a case are separated by a bar in it.
+ * A hit notifies the listeners that are registered when it begins, including a hit that a listener causes
+ * while another hit is being notified.
+ * Exits with status 1 if a log differs from the expected one.
+ */
+public class HitListenerRegistryCheck {
+    private static final StringBuilder LOG = new StringBuilder();
+    private static int errors;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        removedDuringHit();
+        addedDuringHit();
+        removedBeforeNestedHit();
+        System.out.println("Hit listeners: 3 cases, " + errors + " errors");
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A listener that removes itself is still notified of the hit it removes itself in, and not of the next.
+     */
+    private static void removedDuringHit() {
+        HitListenerRegistry registry = new HitListenerRegistry();
+        HitListener[] a = new HitListener[1];
+        a[0] = (beingHit, hitter) -> {
+            LOG.append('A');
+            registry.removeHitListener(a[0]);
+        };
+        registry.addHitListener(a[0]);
+        registry.addHitListener((beingHit, hitter) -> LOG.append('B'));
+        hitTwice(registry, "removed during a hit", "AB|B", 1);
+    }
+
+    /**
+     * A listener added during a hit is only notified of the next hit.
+     */
+    private static void addedDuringHit() {
+        HitListenerRegistry registry = new HitListenerRegistry();
+        boolean[] added = new boolean[1];
+        registry.addHitListener((beingHit, hitter) -> {
+            LOG.append('A');
+            if (!added[0]) {
+                added[0] = true;
+                registry.addHitListener((b, h) -> LOG.append('C'));
+            }
+        });
+        registry.addHitListener((beingHit, hitter) -> LOG.append('B'));
+        hitTwice(registry, "added during a hit", "AB|ABC", 3);
+    }
+
+    /**
+     * A listener removed during a hit is still notified of that hit, but not of a hit that a listener
+     * causes after the removal, while the first hit is being notified.
+     */
+    private static void removedBeforeNestedHit() {
+        HitListenerRegistry registry = new HitListenerRegistry();
+        HitListener b = (beingHit, hitter) -> LOG.append('B');
+        boolean[] nested = new boolean[1];
+        registry.addHitListener((beingHit, hitter) -> {
+            LOG.append('A');
+            registry.removeHitListener(b);
+            if (!nested[0]) {
+                nested[0] = true;
+                registry.notifyHit(beingHit, hitter);
+            }
+        });
+        registry.addHitListener(b);
+        hitTwice(registry, "removed before a nested hit", "AAB|A", 1);
+    }
+
+    /**
+     * Notifies two hits, and compares the log and the number of listeners left with the expected ones.
+     *
+     * @param registry the registry to notify the hits of
+     * @param name     the name of the case
+     * @param expected the expected log
+     * @param size     the expected number of listeners after the hits
+     */
+    private static void hitTwice(HitListenerRegistry registry, String name, String expected, int size) {
+        LOG.setLength(0);
+        registry.notifyHit(null, null);
+        LOG.append('|');
+        registry.notifyHit(null, null);
+        if (!LOG.toString().equals(expected) || registry.size() != size) {
+            System.out.println("Hit listeners: " + name + ": " + LOG + " with " + registry.size()
+                    + " listeners left, expected " + expected + " with " + size);
+            errors++;
+        }
+    }
+}
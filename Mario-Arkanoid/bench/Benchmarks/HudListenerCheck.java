@@ -0,0 +1,54 @@
+package Benchmarks;
+
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.LevelInformation;
+import Level.ScoreTrackingListener;
+import Rendering.NullDrawSurface;
+import Screens.Level1;
+import Screens.Level2;
+
+/**
+ * The Benchmarks.HudListenerCheck class plays several headless levels one after the other on a single score,
+ * as the game does, and checks that the score indicator of a level stops listening to the score once the
+ * level is over, so the score does not keep the indicators of the finished levels.
+ * The paddle never moves, so every level ends when its balls are lost.
+ * Exits with status 1 if a level does not end, or if the score has more listeners after a level than before it.
+ */
+public class HudListenerCheck {
+    private static final int LEVELS = 5;
+    // A level that is still running after this many ticks is taken to never end
+    private static final int MAX_TICKS = 1000000;
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Counter score = new Counter(0);
+        ScoreTrackingListener scoreTrackingListener = new ScoreTrackingListener(score);
+        int before = score.getListenerCount();
+        int errors = 0;
+        StringBuilder counts = new StringBuilder().append(before);
+        for (int i = 0; i < LEVELS; i++) {
+            LevelInformation info = i % 2 == 0 ? new Level1() : new Level2();
+            HeadlessLevel level = new HeadlessLevel(info, scoreTrackingListener, key -> false,
+                    new NullDrawSurface(800, 600));
+            level.initialize();
+            level.runTicks(MAX_TICKS, 1);
+            if (!level.isOver()) {
+                errors++;
+            }
+            counts.append(' ').append(score.getListenerCount());
+            if (score.getListenerCount() != before) {
+                errors++;
+            }
+        }
+        System.out.println("Score listeners after each of " + LEVELS + " levels: " + counts + ", " + errors
+                + " errors");
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+}
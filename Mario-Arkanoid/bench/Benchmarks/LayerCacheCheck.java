@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import Animations.AllocationMeter;
+import Geometry.Point;
+import Rendering.ImageDrawSurface;
+import Sprites.Block;
+import Sprites.SpriteCollection;
+import Sprites.SpriteLayer;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Benchmarks.LayerCacheCheck class checks that a cached layer of blocks, which only draws again the parts
+ * of its image where blocks were removed, looks exactly like the same blocks drawn one by one.
+ * Two sprite collections get the same blocks at random, only one of them caching its blocks layer,
+ * and blocks are removed from both, one or two between frames. Every frame of the two must have the same pixels.
+ * The check runs once with a cache that draws into its image, and once with a shared cache, which draws
+ * into a copy of it, and prints the bytes and time the cached collection spent per frame.
+ * Exits with status 1 if any frame differs.
+ */
+public class LayerCacheCheck {
+    // More blocks than a level needs to have its blocks layer cached
+    private static final int BLOCKS = 2500;
+    private static final int FRAMES = 300;
+    // A second block is removed before every this many frames
+    private static final int DOUBLE_EVERY = 7;
+    private static final Color[] COLORS = {Color.red, Color.green, Color.blue, Color.orange, Color.gray, Color.pink};
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        int errors = check(false) + check(true);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Removes blocks from a cached and an uncached collection, and compares their frames.
+     *
+     * @param shared true to draw every change of the cache into a copy of its image
+     * @return the number of frames that differ
+     */
+    private static int check(boolean shared) {
+        SpriteCollection cached = new SpriteCollection(new ArrayList<>());
+        SpriteCollection plain = new SpriteCollection(new ArrayList<>());
+        cached.setShared(shared);
+        cached.setCached(SpriteLayer.BLOCKS, true, 800, 600);
+        Random random = new Random(1);
+        List<Long> cachedHandles = new ArrayList<>();
+        List<Long> plainHandles = new ArrayList<>();
+        for (int i = 0; i < BLOCKS; i++) {
+            Point upperLeft = new Point(random.nextInt(760), random.nextInt(560));
+            int width = 25 + random.nextInt(30);
+            int height = 25 + random.nextInt(30);
+            Color color = COLORS[random.nextInt(COLORS.length)];
+            cachedHandles.add(cached.addSprite(new Block(upperLeft, width, height, color)));
+            plainHandles.add(plain.addSprite(new Block(upperLeft, width, height, color)));
+        }
+        ImageDrawSurface cachedFrame = new ImageDrawSurface(800, 600, false);
+        ImageDrawSurface plainFrame = new ImageDrawSurface(800, 600, false);
+        // The first frame draws the whole cache
+        cached.drawAllOn(cachedFrame);
+        AllocationMeter meter = new AllocationMeter(-1);
+        long nanos = 0;
+        int errors = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            int removals = frame % DOUBLE_EVERY == 0 ? 2 : 1;
+            for (int i = 0; i < removals; i++) {
+                int index = random.nextInt(cachedHandles.size());
+                cached.removeSprite(cachedHandles.remove(index));
+                plain.removeSprite(plainHandles.remove(index));
+            }
+            clear(cachedFrame);
+            clear(plainFrame);
+            long start = System.nanoTime();
+            long mark = meter.begin();
+            cached.drawAllOn(cachedFrame);
+            meter.end(mark);
+            nanos += System.nanoTime() - start;
+            plain.drawAllOn(plainFrame);
+            int[] cachedPixels = cachedFrame.getImage().getRGB(0, 0, 800, 600, null, 0, 800);
+            int[] plainPixels = plainFrame.getImage().getRGB(0, 0, 800, 600, null, 0, 800);
+            if (!Arrays.equals(cachedPixels, plainPixels)) {
+                errors++;
+            }
+        }
+        System.out.printf("%s cache: %d frames, %d bytes and %.2f ms per frame, %d frames differ%n",
+                shared ? "Shared" : "Unshared", FRAMES, meter.getTotalBytes() / FRAMES,
+                nanos / 1e6 / FRAMES, errors);
+        return errors;
+    }
+
+    /**
+     * Fills a frame with white, so nothing of the previous frame is left in it.
+     *
+     * @param frame the frame
+     */
+    private static void clear(ImageDrawSurface frame) {
+        frame.setColor(Color.white);
+        frame.fillRectangle(0, 0, 800, 600);
+    }
+}
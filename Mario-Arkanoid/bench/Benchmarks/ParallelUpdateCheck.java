@@ -0,0 +1,138 @@
+package Benchmarks;
+
+import Geometry.Point;
+import Level.Counter;
+import Level.HeadlessLevel;
+import Level.ScoreTrackingListener;
+import ListenersAndNotifier.HitListener;
+import Rendering.NullDrawSurface;
+import Screens.GameLevel;
+import Screens.Level2;
+import Sprites.Ball;
+import Sprites.BallSystem;
+import Sprites.Block;
+import Sprites.Velocity;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Benchmarks.ParallelUpdateCheck class plays the same seeded level twice side by side, with enough extra balls
+ * for the parallel mode of Sprites.BallSystem to be used, once in that mode and once moving the balls one after
+ * the other. After every tick, the two levels must have the same balls at the same places, the same blocks and
+ * score, and must have told their listeners of the same hits in the same order.
+ * The parallel mode only looks up collisions on several threads when the common fork join pool has more than
+ * one, so the check asks for 4 of them when no parallelism is given, even on a single processor.
+ * Exits with status 1 if a tick differs, or if the common pool still runs on a single thread.
+ */
+public class ParallelUpdateCheck {
+    // The balls added to the level, more than Sprites.BallSystem moves on the calling thread only
+    private static final int EXTRA_BALLS = 2000;
+    private static final int MAX_TICKS = 600;
+    private static final long SEED = 7;
+    private static final String PARALLELISM = "java.util.concurrent.ForkJoinPool.common.parallelism";
+
+    /**
+     * Runs the check.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        if (System.getProperty(PARALLELISM) == null) {
+            System.setProperty(PARALLELISM, "4");
+        }
+        if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+            System.out.println("Parallel update: the common pool runs on a single thread, so nothing runs in parallel");
+            System.exit(1);
+        }
+        Played sequential = new Played(false);
+        Played parallel = new Played(true);
+        int ticks = 0;
+        int differ = 0;
+        while (!sequential.level.isOver() && ticks < MAX_TICKS) {
+            sequential.level.tick();
+            parallel.level.tick();
+            ticks++;
+            if (sequential.state() != parallel.state()) {
+                if (differ == 0) {
+                    System.out.println("Parallel update: first difference after tick " + ticks);
+                }
+                differ++;
+            }
+        }
+        if (parallel.level.isOver() != sequential.level.isOver()) {
+            differ++;
+        }
+        System.out.println("Parallel update: " + ticks + " ticks, " + sequential.hits + " hits, "
+                + sequential.balls.size() + " balls left, " + differ + " ticks differ");
+        if (differ > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * A seeded level with its extra balls, and the hits its listeners were told of so far.
+     */
+    private static class Played implements HitListener {
+        private final HeadlessLevel level;
+        private final BallSystem balls;
+        private final ScoreTrackingListener score = new ScoreTrackingListener(new Counter(0));
+        private int hits;
+        private long hitHash = 1;
+
+        /**
+         * Creates the level, the same way for both modes.
+         *
+         * @param parallelMode true to look up the collisions of the balls in parallel
+         */
+        Played(boolean parallelMode) {
+            Level2 info = new Level2();
+            info.setSeed(SEED);
+            level = new HeadlessLevel(info, score, key -> false, new NullDrawSurface(800, 600));
+            GameLevel game = level.getLevel();
+            game.setSeed(SEED);
+            game.setParallelUpdate(parallelMode);
+            level.initialize();
+            balls = game.getBallSystem();
+            balls.addHitListener(this);
+            Random random = new Random(SEED);
+            for (int i = 0; i < EXTRA_BALLS; i++) {
+                Velocity v = Velocity.fromAngleAndSpeed(random.nextInt(360), 1 + random.nextInt(2));
+                balls.spawn(50 + random.nextInt(700), 400 + random.nextInt(150), 4, Color.RED, v.getDx(), v.getDy());
+            }
+            game.setRemainingBalls(EXTRA_BALLS);
+        }
+
+        @Override
+        public void hitEvent(Block beingHit, Ball hitter) {
+            Point corner = beingHit.getCollisionRectangle().getUpperLeft();
+            hits++;
+            hitHash = hitHash * 31 + Double.hashCode(corner.getX());
+            hitHash = hitHash * 31 + Double.hashCode(corner.getY());
+            hitHash = hitHash * 31 + Double.hashCode(hitter.getCenter().getX());
+            hitHash = hitHash * 31 + Double.hashCode(hitter.getCenter().getY());
+        }
+
+        /**
+         * Returns a hash of everything the two modes must agree on after a tick.
+         *
+         * @return the hash of the state of the level
+         */
+        long state() {
+            GameLevel game = level.getLevel();
+            long hash = hitHash;
+            hash = hash * 31 + hits;
+            hash = hash * 31 + score.getCurrentScore().getValue();
+            hash = hash * 31 + game.getRemainingBalls();
+            hash = hash * 31 + game.getEnvironment().size();
+            hash = hash * 31 + balls.size();
+            for (int i = 0; i < balls.size(); i++) {
+                Point center = balls.get(i).getCenter();
+                hash = hash * 31 + Double.hashCode(center.getX());
+                hash = hash * 31 + Double.hashCode(center.getY());
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Benchmarks;
+
+import Level.SlotMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Benchmarks.SlotMapCheck class checks a Level.SlotMap against an ArrayList that is changed the same way.
+ * Items are added and removed at random, and the map is compared to the list every so often: the items
+ * must be the same, in the same order, every handle must give its own item, and the handles of removed
+ * items must give nothing and remove nothing. Handles are kept boxed in a list, as callers may keep them.
+ * Exits with status 1 if anything differs.
+ */
+public class SlotMapCheck {
+    private static final int STEPS = 200000;
+    // The map is compared to the list once every this many steps
+    private static final int COMPARE_EVERY = 997;
+
+    /**
+     * Runs the check.
+     *
+     * @param args the seed of the random changes, 1 if none is given
+     */
+    public static void main(String[] args) {
+        Random random = new Random(args.length > 0 ? Long.parseLong(args[0]) : 1);
+        SlotMap<Integer> map = new SlotMap<>();
+        List<Integer> items = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        int errors = 0;
+        int next = 0;
+        for (int step = 0; step < STEPS; step++) {
+            int change = random.nextInt(10);
+            if (change < 5 || items.isEmpty()) {
+                items.add(next);
+                handles.add(map.add(next));
+                next++;
+            } else if (change < 9) {
+                int index = random.nextInt(items.size());
+                Long handle = handles.remove(index);
+                items.remove(index);
+                if (!map.remove(handle)) {
+                    errors++;
+                }
+                removed.add(handle);
+            } else if (!removed.isEmpty()) {
+                Long handle = removed.get(random.nextInt(removed.size()));
+                if (map.remove(handle) || map.contains(handle) || map.get(handle) != null) {
+                    errors++;
+                }
+            }
+            if (step % COMPARE_EVERY == 0) {
+                errors += compare(map, items, handles);
+            }
+        }
+        errors += compare(map, items, handles);
+        System.out.println("SlotMap: " + STEPS + " changes, " + map.size() + " items left, " + errors + " errors");
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the items of the map to the items of the list, and the item of every handle.
+     *
+     * @param map     the map
+     * @param items   the items the map should have, in their order
+     * @param handles the handles of the items, in the same order
+     * @return the number of differences
+     */
+    private static int compare(SlotMap<Integer> map, List<Integer> items, List<Long> handles) {
+        int errors = map.size() == items.size() ? 0 : 1;
+        int index = 0;
+        for (int i = 0; i < map.end(); i++) {
+            Integer item = map.at(i);
+            if (item == null) {
+                continue;
+            }
+            if (index >= items.size() || !item.equals(items.get(index))) {
+                errors++;
+            }
+            index++;
+        }
+        for (int i = 0; i < handles.size(); i++) {
+            if (!items.get(i).equals(map.get(handles.get(i)))) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,161 @@
+package Animations;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The AllocationMeter class measures how many bytes the current thread allocates during every frame.
+ * A frame is measured between begin() and end(), from the per-thread allocation counter of the JVM.
+ * begin() returns a mark that is given back to end(), so frames of an animation run in the middle of
+ * another one can be measured with the same meter.
+ * The meter keeps the number of frames, the total and the largest allocation of a frame, and the
+ * number of frames over a budget. In the strict mode, a frame over the budget fails right away,
+ * so a check that runs frames headless fails as soon as a frame allocates too much.
+ * If the JVM does not count allocations, frames are counted but always measure 0 bytes.
+ */
+public class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean COUNTER = counter();
+
+    private long budget;
+    private boolean strict;
+    private long frames;
+    private long totalBytes;
+    private long maxBytes;
+    private long framesOverBudget;
+
+    /**
+     * Constructs an AllocationMeter with a budget of bytes per frame.
+     *
+     * @param budget the largest number of bytes a frame may allocate, or a negative number for no budget
+     */
+    public AllocationMeter(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Checks whether the JVM counts the bytes allocated by every thread.
+     *
+     * @return true if frames are really measured, false if they always measure 0 bytes
+     */
+    public static boolean isSupported() {
+        return COUNTER != null;
+    }
+
+    /**
+     * Chooses whether a frame over the budget fails with an exception from end().
+     *
+     * @param strict true to fail frames over the budget, false to only count them
+     */
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    /**
+     * Starts measuring a frame on the current thread.
+     *
+     * @return the mark of the start of the frame, to give to end()
+     */
+    public long begin() {
+        return allocatedBytes();
+    }
+
+    /**
+     * Ends measuring a frame on the thread that began it.
+     *
+     * @param mark the mark returned by begin() at the start of the frame
+     * @return the number of bytes allocated during the frame
+     * @throws IllegalStateException in the strict mode, if the frame allocated more than the budget
+     */
+    public long end(long mark) {
+        long bytes = allocatedBytes() - mark;
+        frames++;
+        totalBytes += bytes;
+        maxBytes = Math.max(maxBytes, bytes);
+        if (budget >= 0 && bytes > budget) {
+            framesOverBudget++;
+            if (strict) {
+                throw new IllegalStateException("Frame " + frames + " allocated " + bytes
+                        + " bytes, over the budget of " + budget + " bytes");
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of frames measured.
+     *
+     * @return the number of frames
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the number of bytes allocated by all the frames measured.
+     *
+     * @return the total number of bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the largest number of bytes allocated by a single frame.
+     *
+     * @return the largest number of bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the number of frames that allocated more than the budget.
+     *
+     * @return the number of frames over the budget
+     */
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /**
+     * Forgets all the frames measured so far.
+     */
+    public void reset() {
+        frames = 0;
+        totalBytes = 0;
+        maxBytes = 0;
+        framesOverBudget = 0;
+    }
+
+    @Override
+    public String toString() {
+        return frames + " frames, " + (frames == 0 ? 0 : totalBytes / frames) + " bytes per frame on average, "
+                + maxBytes + " at most, " + framesOverBudget + " over the budget of " + budget;
+    }
+
+    private static long allocatedBytes() {
+        return COUNTER == null ? 0 : COUNTER.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Returns the allocation counter of the JVM, turning it on if needed.
+     *
+     * @return the counter, or null if the JVM has none
+     */
+    private static com.sun.management.ThreadMXBean counter() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+                if (counter.isThreadAllocatedMemorySupported()) {
+                    counter.setThreadAllocatedMemoryEnabled(true);
+                    return counter;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+            // No allocation counter on this JVM: frames measure 0 bytes
+            return null;
+        }
+        return null;
+    }
+}
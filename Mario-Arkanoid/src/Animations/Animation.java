@@ -1,5 +1,6 @@
 package Animations;
 
+import Rendering.DetailTier;
 import biuoop.DrawSurface;
 
 /**
@@ -23,4 +24,14 @@ public interface Animation {
      * @return true if the animation should stop, false otherwise
      */
     boolean shouldStop();
+
+    /**
+     * Sets the tier of detail the animation is drawn in. Frames that regularly take longer than their
+     * budget lower the tier, so the animation can drop the work it does not need, and fast frames raise it.
+     * Does nothing by default.
+     *
+     * @param tier the tier of detail
+     */
+    default void setDetail(DetailTier tier) {
+    }
 }
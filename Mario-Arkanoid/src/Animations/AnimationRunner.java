@@ -1,18 +1,56 @@
 package Animations;
 
+import Rendering.BatchingDrawSurface;
+import Rendering.TripleBuffer;
 import biuoop.DrawSurface;
 import biuoop.GUI;
-import biuoop.Sleeper;
+
+import java.awt.Color;
 
 /**
  * The AnimationRunner class is responsible for running animations.
  * It controls the game loop, rendering frames on the GUI at a fixed frame rate,
  * and ensuring smooth animation by managing timing and sleeping between frames.
+ * Animations that implement SteppedAnimation are run with a fixed timestep: their simulation
+ * advances in ticks of fixed length, whatever the time it takes to draw a frame.
+ * Frames are first recorded into a BatchingDrawSurface, which sends them to the window grouped by color.
+ * In the render thread mode, stepped animations only record their frames, and a RenderThread shows them,
+ * so drawing on the window never holds up the ticks. Running another animation in the middle of one
+ * stops the render thread until it is over, so only one thread at a time uses the window.
+ * An AllocationMeter may be given to measure the bytes allocated by the animation in every frame:
+ * by its ticks and drawing, but not by the window showing the frame.
+ * Frames are paced by a FramePacer to the nanosecond, and the time of updating, drawing and showing
+ * every frame is recorded in FrameStats, which can be shown over the frames.
+ * A LoadMonitor chooses a tier of detail from the time frames take, and the animation is told
+ * whenever it changes, so it can drop optional work while frames take longer than their budget.
  */
 public class AnimationRunner {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLI = 1000000L;
+    // Longer gaps (a pause screen, a stalled machine) are dropped instead of being caught up on
+    private static final long MAX_FRAME_NANOS = 250 * NANOS_PER_MILLI;
+    // The statistics shown over the frames are written again twice a second
+    private static final int OVERLAY_REFRESH = 30;
+    private static final int OVERLAY_X = 530;
+    private static final int OVERLAY_Y = 25;
+    private static final int OVERLAY_WIDTH = 265;
+    private static final int OVERLAY_LINE = 14;
+    private static final int OVERLAY_FONT = 12;
+
     private GUI gui;
     private int framesPerSecond;
-    private Sleeper sleeper;
+    private int ticksPerSecond;
+    private boolean fixedTimestep;
+    private boolean batching;
+    private boolean renderThread;
+    private RenderThread activeRenderThread;
+    private AllocationMeter allocationMeter;
+    private FrameStats frameStats;
+    private boolean statsOverlay;
+    private boolean adaptive;
+    private String[] overlayLines;
+    private int overlayAge;
+    private int runs;
 
     /**
      * Constructor that creates a new AnimationRunner.
@@ -23,7 +61,99 @@ public class AnimationRunner {
     public AnimationRunner(GUI gui) {
         this.gui = gui;
         this.framesPerSecond = 59;
-        sleeper = new Sleeper();
+        this.ticksPerSecond = 59;
+        this.fixedTimestep = true;
+        this.batching = true;
+        this.adaptive = true;
+        this.frameStats = new FrameStats();
+    }
+
+    /**
+     * Sets the largest number of frames drawn per second.
+     *
+     * @param framesPerSecond the number of frames per second
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+        this.framesPerSecond = framesPerSecond;
+    }
+
+    /**
+     * Sets the number of simulation ticks per second of stepped animations.
+     *
+     * @param ticksPerSecond the number of ticks per second
+     */
+    public void setTicksPerSecond(int ticksPerSecond) {
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    /**
+     * Chooses whether stepped animations are run with a fixed timestep.
+     * When turned off, they are run like any other animation, one step per frame.
+     *
+     * @param fixedTimestep true to use a fixed timestep, false otherwise
+     */
+    public void setFixedTimestep(boolean fixedTimestep) {
+        this.fixedTimestep = fixedTimestep;
+    }
+
+    /**
+     * Chooses whether frames are recorded and sent to the window grouped by color,
+     * or drawn on the window call by call. Both look the same.
+     *
+     * @param batching true to group the drawing of frames, false otherwise
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
+    /**
+     * Chooses whether stepped animations are shown on the window by a thread of their own.
+     * The frames shown are then recorded after the ticks, and drawn while the next ticks run.
+     * This mode should not be combined with the dirty rendering of GameLevel, whose frames
+     * are copied from an image that changes on the next frame.
+     *
+     * @param renderThread true to show frames from a render thread, false to show them between ticks
+     */
+    public void setRenderThread(boolean renderThread) {
+        this.renderThread = renderThread;
+    }
+
+    /**
+     * Sets the meter that measures the bytes allocated by the animation in every frame.
+     *
+     * @param allocationMeter the meter, or null to stop measuring
+     */
+    public void setAllocationMeter(AllocationMeter allocationMeter) {
+        this.allocationMeter = allocationMeter;
+    }
+
+    /**
+     * Returns the statistics of the time taken by every phase of the frames run so far.
+     * The frames of all the animations are recorded, including those that wait in the middle of a frame,
+     * such as the countdown; reset() forgets them.
+     *
+     * @return the frame statistics
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Chooses whether the frame statistics are shown over the frames.
+     *
+     * @param statsOverlay true to show the statistics, false otherwise
+     */
+    public void setStatsOverlay(boolean statsOverlay) {
+        this.statsOverlay = statsOverlay;
+    }
+
+    /**
+     * Chooses whether the tier of detail of animations follows the time their frames take.
+     *
+     * @param adaptive true to lower the detail of slow animations, false to always draw them in full
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
     }
 
     /**
@@ -34,18 +164,244 @@ public class AnimationRunner {
      * @param animation the animation to run
      */
     public void run(Animation animation) {
+        runs++;
+        // An animation run from the middle of another one takes the window back from its render thread
+        RenderThread outer = activeRenderThread;
+        if (outer != null) {
+            outer.stop();
+            activeRenderThread = null;
+        }
+        try {
+            if (fixedTimestep && animation instanceof SteppedAnimation) {
+                runFixedTimestep((SteppedAnimation) animation);
+            } else {
+                runFrames(animation);
+            }
+        } finally {
+            if (outer != null) {
+                outer.start();
+                activeRenderThread = outer;
+            }
+        }
+    }
+
+    /**
+     * Runs an animation one frame after the other, drawing and showing every frame.
+     *
+     * @param animation the animation to run
+     */
+    private void runFrames(Animation animation) {
+        long nanosPerFrame = NANOS_PER_SECOND / framesPerSecond;
+        FramePacer pacer = new FramePacer(nanosPerFrame);
+        LoadMonitor load = new LoadMonitor(nanosPerFrame);
+        // Every run has its own batch, since an animation may run another one in the middle of a frame
+        BatchingDrawSurface batch = null;
         while (!animation.shouldStop()) {
+            long frameStart = System.nanoTime();
+            int runsBefore = runs;
             DrawSurface d = gui.getDrawSurface();
-            animation.doOneFrame(d);
+            AllocationMeter meter = allocationMeter;
+            long mark = meter == null ? 0 : meter.begin();
+            DrawSurface target = d;
+            if (batching) {
+                batch = batchFor(batch, d);
+                target = batch;
+            }
+            animation.doOneFrame(target);
+            if (meter != null) {
+                meter.end(mark);
+            }
+            long drawn = System.nanoTime();
+            if (statsOverlay) {
+                drawOverlay(target, load);
+            }
+            if (batching) {
+                batch.flush(d);
+            }
             gui.show(d);
-            // timing
-            int millisecondsPerFrame = 1000 / framesPerSecond;
-            long startTime = System.currentTimeMillis(); // timing
-            long usedTime = System.currentTimeMillis() - startTime;
-            long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
-            if (milliSecondLeftToSleep > 0) {
-                sleeper.sleepFor(milliSecondLeftToSleep);
+            long shown = System.nanoTime();
+            // A frame that ran another animation is not a measure of this one
+            if (runs == runsBefore) {
+                frameStats.record(FrameStats.Phase.DRAW, drawn - frameStart);
+                frameStats.record(FrameStats.Phase.SHOW, shown - drawn);
+                adapt(animation, load, shown - frameStart);
+            }
+            pacer.waitForNextFrame();
+        }
+    }
+
+    /**
+     * Runs a stepped animation with a fixed timestep.
+     * The time that passed since the last frame is added to an accumulator, which is spent
+     * on as many fixed ticks as it holds. The frame is then drawn between the last two ticks,
+     * according to the time left in the accumulator.
+     *
+     * @param animation the animation to run
+     */
+    private void runFixedTimestep(SteppedAnimation animation) {
+        long nanosPerTick = NANOS_PER_SECOND / ticksPerSecond;
+        long nanosPerFrame = NANOS_PER_SECOND / framesPerSecond;
+        TripleBuffer<BatchingDrawSurface> frames = null;
+        if (renderThread) {
+            DrawSurface size = gui.getDrawSurface();
+            frames = new TripleBuffer<>(new BatchingDrawSurface(size.getWidth(), size.getHeight()),
+                    new BatchingDrawSurface(size.getWidth(), size.getHeight()),
+                    new BatchingDrawSurface(size.getWidth(), size.getHeight()));
+            activeRenderThread = new RenderThread(gui, frames);
+            activeRenderThread.setFrameStats(frameStats);
+            activeRenderThread.start();
+        }
+        try {
+            loopFixedTimestep(animation, nanosPerTick, nanosPerFrame, frames);
+        } finally {
+            if (activeRenderThread != null) {
+                activeRenderThread.stop();
+                activeRenderThread = null;
             }
         }
     }
+
+    /**
+     * Runs the ticks and frames of a stepped animation until it stops.
+     *
+     * @param animation     the animation to run
+     * @param nanosPerTick  the length of a tick
+     * @param nanosPerFrame the shortest time between two frames
+     * @param frames        the buffer to publish frames to in the render thread mode, or null
+     */
+    private void loopFixedTimestep(SteppedAnimation animation, long nanosPerTick, long nanosPerFrame,
+                                   TripleBuffer<BatchingDrawSurface> frames) {
+        long accumulator = 0;
+        long previous = System.nanoTime();
+        FramePacer pacer = new FramePacer(nanosPerFrame);
+        LoadMonitor load = new LoadMonitor(nanosPerFrame);
+        BatchingDrawSurface batch = null;
+        while (!animation.shouldStop()) {
+            long frameStart = System.nanoTime();
+            int runsBefore = runs;
+            AllocationMeter meter = allocationMeter;
+            long mark = meter == null ? 0 : meter.begin();
+            accumulator += Math.min(frameStart - previous, MAX_FRAME_NANOS);
+            previous = frameStart;
+            while (accumulator >= nanosPerTick && !animation.shouldStop()) {
+                animation.step();
+                accumulator -= nanosPerTick;
+            }
+            if (animation.shouldStop()) {
+                return;
+            }
+            long updated = System.nanoTime();
+            if (updated - frameStart > MAX_FRAME_NANOS) {
+                // A tick ran another animation (such as the pause screen): start timing afresh
+                accumulator = 0;
+                previous = updated;
+            }
+            double alpha = (double) accumulator / nanosPerTick;
+            long drawn;
+            long shown;
+            if (frames != null) {
+                // The writer may get back a frame the render thread skipped, so it is emptied first
+                BatchingDrawSurface frame = frames.getBack();
+                frame.clear();
+                animation.render(frame, alpha);
+                if (meter != null) {
+                    meter.end(mark);
+                }
+                drawn = System.nanoTime();
+                if (statsOverlay) {
+                    drawOverlay(frame, load);
+                }
+                frames.publish();
+                activeRenderThread.wake();
+                // The render thread records the time of showing the frame
+                shown = -1;
+            } else {
+                DrawSurface d = gui.getDrawSurface();
+                DrawSurface target = d;
+                if (batching) {
+                    batch = batchFor(batch, d);
+                    target = batch;
+                }
+                animation.render(target, alpha);
+                if (meter != null) {
+                    meter.end(mark);
+                }
+                drawn = System.nanoTime();
+                if (statsOverlay) {
+                    drawOverlay(target, load);
+                }
+                if (batching) {
+                    batch.flush(d);
+                }
+                gui.show(d);
+                shown = System.nanoTime();
+            }
+            // A frame that ran another animation is not a measure of this one
+            if (runs == runsBefore) {
+                frameStats.record(FrameStats.Phase.UPDATE, updated - frameStart);
+                frameStats.record(FrameStats.Phase.DRAW, drawn - updated);
+                if (shown >= 0) {
+                    frameStats.record(FrameStats.Phase.SHOW, shown - drawn);
+                }
+                adapt(animation, load, (shown >= 0 ? shown : drawn) - frameStart);
+            }
+            pacer.waitForNextFrame();
+        }
+    }
+
+    /**
+     * Adds the time of a frame to the load of the animation, and tells the animation
+     * its tier of detail whenever it changes.
+     *
+     * @param animation the animation
+     * @param load      the load of the frames of the animation
+     * @param nanos     the time the frame took, without the wait after it
+     */
+    private void adapt(Animation animation, LoadMonitor load, long nanos) {
+        if (adaptive && load.add(nanos)) {
+            animation.setDetail(load.getTier());
+        }
+    }
+
+    /**
+     * Draws the frame statistics at the top right corner of the frame.
+     * The text is only written again every few frames, so it can be read and costs little.
+     *
+     * @param d    the surface of the frame
+     * @param load the load of the frames of the animation
+     */
+    private void drawOverlay(DrawSurface d, LoadMonitor load) {
+        if (overlayLines == null || ++overlayAge >= OVERLAY_REFRESH) {
+            FrameStats.Phase[] phases = FrameStats.Phase.values();
+            overlayLines = new String[phases.length + 1];
+            for (int i = 0; i < phases.length; i++) {
+                overlayLines[i] = frameStats.summary(phases[i]);
+            }
+            overlayLines[phases.length] = String.format("load %.0f%% detail %s", load.getLoad() * 100,
+                    load.getTier().name().toLowerCase());
+            overlayAge = 0;
+        }
+        int height = overlayLines.length * OVERLAY_LINE + 6;
+        d.setColor(Color.white);
+        d.fillRectangle(OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, height);
+        d.setColor(Color.black);
+        d.drawRectangle(OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, height);
+        for (int i = 0; i < overlayLines.length; i++) {
+            d.drawText(OVERLAY_X + 5, OVERLAY_Y + (i + 1) * OVERLAY_LINE, overlayLines[i], OVERLAY_FONT);
+        }
+    }
+
+    /**
+     * Returns the given batch if it fits the surface, or a new batch of the size of the surface otherwise.
+     *
+     * @param batch the batch used so far, or null
+     * @param d     the surface of the frame
+     * @return a batch of the size of the surface
+     */
+    private static BatchingDrawSurface batchFor(BatchingDrawSurface batch, DrawSurface d) {
+        if (batch == null || batch.getWidth() != d.getWidth() || batch.getHeight() != d.getHeight()) {
+            return new BatchingDrawSurface(d.getWidth(), d.getHeight());
+        }
+        return batch;
+    }
 }
@@ -0,0 +1,76 @@
+package Animations;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The FramePacer class waits between frames so they start at a steady rate, to the nanosecond.
+ * Every frame has a deadline, one frame length after the deadline of the one before it, so a frame
+ * that started late is followed by a shorter wait, and the rate stays right on average.
+ * The thread sleeps until a little before the deadline and yields the processor for the rest of it.
+ * How late the thread wakes up from its sleeps is learned as it goes, and the sleeps are shortened by it.
+ * A frame that is more than a whole frame late starts a new schedule instead of rushing to catch up.
+ */
+public class FramePacer {
+    // The last part of a wait is spent yielding, since sleeping that little is not precise
+    private static final long YIELD_NANOS = 200000L;
+    // Every new measure of oversleeping moves the expected oversleeping by an eighth of the difference
+    private static final int OVERSLEEP_SMOOTHING = 8;
+
+    private long nanosPerFrame;
+    private long deadline;
+    private long oversleep;
+
+    /**
+     * Constructs a FramePacer for the given frame length. The first frame starts when it is constructed.
+     *
+     * @param nanosPerFrame the length of a frame, in nanoseconds
+     */
+    public FramePacer(long nanosPerFrame) {
+        this.nanosPerFrame = nanosPerFrame;
+        restart();
+    }
+
+    /**
+     * Starts a new schedule, as if a frame started now.
+     */
+    public void restart() {
+        deadline = System.nanoTime() + nanosPerFrame;
+    }
+
+    /**
+     * Waits until the next frame should start.
+     */
+    public void waitForNextFrame() {
+        long now = System.nanoTime();
+        if (now - deadline > nanosPerFrame) {
+            // Too late to catch up: the next frame starts now
+            deadline = now + nanosPerFrame;
+            return;
+        }
+        while (true) {
+            long left = deadline - now;
+            if (left <= 0) {
+                break;
+            }
+            long sleep = left - oversleep - YIELD_NANOS;
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+                long slept = System.nanoTime() - now;
+                oversleep += (Math.max(slept - sleep, 0) - oversleep) / OVERSLEEP_SMOOTHING;
+            } else {
+                Thread.yield();
+            }
+            now = System.nanoTime();
+        }
+        deadline += nanosPerFrame;
+    }
+
+    /**
+     * Returns how late the thread is expected to wake up from a sleep.
+     *
+     * @return the expected oversleeping, in nanoseconds
+     */
+    public long getOversleep() {
+        return oversleep;
+    }
+}
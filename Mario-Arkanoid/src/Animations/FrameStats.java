@@ -0,0 +1,188 @@
+package Animations;
+
+import java.util.Arrays;
+
+/**
+ * The FrameStats class keeps a histogram of how long every phase of the frames takes:
+ * updating the animation, drawing it and showing it on the window.
+ * Every histogram has a fixed array of buckets: a bucket for every nanosecond up to 8,
+ * and then 8 buckets for every power of two, so a time is known to within an eighth of it
+ * and recording a time allocates nothing.
+ * A phase should be recorded by one thread at a time. The times may be read from another thread,
+ * in which case they may miss the last few frames.
+ */
+public class FrameStats {
+    // 8 buckets for every power of two: times are known to within 12.5%
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Enough buckets for any positive long
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    /**
+     * The phases of a frame.
+     */
+    public enum Phase {
+        /**
+         * Advancing the animation: the ticks of a stepped animation.
+         */
+        UPDATE,
+        /**
+         * Drawing the frame. Animations that are not stepped update themselves while they draw.
+         */
+        DRAW,
+        /**
+         * Sending the frame to the window and showing it.
+         */
+        SHOW
+    }
+
+    private long[][] buckets = new long[Phase.values().length][BUCKETS];
+    private long[] counts = new long[Phase.values().length];
+    private long[] max = new long[Phase.values().length];
+
+    /**
+     * Records how long a phase of a frame took.
+     *
+     * @param phase the phase
+     * @param nanos the time it took, in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        long time = Math.max(nanos, 0);
+        int p = phase.ordinal();
+        buckets[p][bucket(time)]++;
+        counts[p]++;
+        if (time > max[p]) {
+            max[p] = time;
+        }
+    }
+
+    /**
+     * Returns the time that the given share of the recorded times of a phase do not go over.
+     * For example, a share of 0.99 gives the 99th percentile.
+     *
+     * @param phase the phase
+     * @param share the share of the times, between 0 and 1
+     * @return the time, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(Phase phase, double share) {
+        int p = phase.ordinal();
+        long count = counts[p];
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(share * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[p][i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max[p]);
+            }
+        }
+        return max[p];
+    }
+
+    /**
+     * Returns the median time of a phase.
+     *
+     * @param phase the phase
+     * @return the time, in nanoseconds
+     */
+    public long getP50(Phase phase) {
+        return getPercentile(phase, 0.5);
+    }
+
+    /**
+     * Returns the time that 99% of the recorded times of a phase do not go over.
+     *
+     * @param phase the phase
+     * @return the time, in nanoseconds
+     */
+    public long getP99(Phase phase) {
+        return getPercentile(phase, 0.99);
+    }
+
+    /**
+     * Returns the longest recorded time of a phase.
+     *
+     * @param phase the phase
+     * @return the time, in nanoseconds
+     */
+    public long getMax(Phase phase) {
+        return max[phase.ordinal()];
+    }
+
+    /**
+     * Returns the number of times recorded for a phase.
+     *
+     * @param phase the phase
+     * @return the number of times
+     */
+    public long getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Forgets all the recorded times.
+     */
+    public void reset() {
+        for (int p = 0; p < counts.length; p++) {
+            Arrays.fill(buckets[p], 0);
+            counts[p] = 0;
+            max[p] = 0;
+        }
+    }
+
+    /**
+     * Returns a line with the median, 99th percentile and longest time of a phase, in milliseconds.
+     *
+     * @param phase the phase
+     * @return the summary of the phase
+     */
+    public String summary(Phase phase) {
+        return String.format("%s p50 %.2f p99 %.2f max %.2f ms", phase.name().toLowerCase(),
+                getP50(phase) / 1e6, getP99(phase) / 1e6, getMax(phase) / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(summary(phase));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the bucket of a time.
+     *
+     * @param time the time, not negative
+     * @return the index of its bucket
+     */
+    private static int bucket(long time) {
+        if (time < SUB_BUCKETS) {
+            return (int) time;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(time);
+        int sub = (int) (time >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the longest time that falls in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the longest time of the bucket
+     */
+    private static long highest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,102 @@
+package Animations;
+
+import Rendering.DetailTier;
+
+/**
+ * The LoadMonitor class chooses the tier of detail frames are drawn in from the time they take.
+ * The load is the share of the budget used by a frame, smoothed over about half a second of frames,
+ * so a single slow frame does not count. The tier goes down while the load is over the whole budget,
+ * and only goes back up once the load is well under it, so the tier does not flicker.
+ * After every change the tier is kept for a while, to let the load show the cost of the new tier.
+ * A tier that had to be left soon after going up to it is only tried again after twice as long,
+ * so frames whose budget lies between two tiers settle in the lower one instead of going back and forth.
+ */
+public class LoadMonitor {
+    // Every frame moves the load by a thirtieth of the difference: about half a second at 60 frames per second
+    private static final double SMOOTHING = 1.0 / 30;
+    // Less detail above the whole budget, and more detail only under half of it, where a costlier tier fits
+    private static final double OVERLOAD = 1.0;
+    private static final double RECOVER = 0.5;
+    // About a second at 60 frames per second
+    private static final int DWELL_FRAMES = 60;
+    // About 16 seconds at 60 frames per second, and twice that to count the tier as held
+    private static final int MAX_RECOVER_FRAMES = 16 * DWELL_FRAMES;
+
+    private long budget;
+    private double load;
+    private DetailTier tier = DetailTier.FULL;
+    private int framesInTier;
+    private int recoverFrames = DWELL_FRAMES;
+    private boolean raised;
+
+    /**
+     * Constructs a LoadMonitor for the given budget of a frame.
+     *
+     * @param budget the time a frame may take, in nanoseconds
+     */
+    public LoadMonitor(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Adds the time a frame took to the load, and moves to another tier if needed.
+     *
+     * @param nanos the time the frame took, in nanoseconds
+     * @return true if the tier changed, false otherwise
+     */
+    public boolean add(long nanos) {
+        load += ((double) nanos / budget - load) * SMOOTHING;
+        if (framesInTier < 2 * MAX_RECOVER_FRAMES) {
+            framesInTier++;
+        }
+        if (raised && framesInTier >= 2 * recoverFrames) {
+            // The higher tier held for twice the wait before going up to it: later recoveries wait as usual
+            raised = false;
+            recoverFrames = DWELL_FRAMES;
+        }
+        DetailTier next = tier;
+        if (load > OVERLOAD && framesInTier >= DWELL_FRAMES) {
+            next = tier.lower();
+            if (raised) {
+                recoverFrames = Math.min(2 * recoverFrames, MAX_RECOVER_FRAMES);
+                raised = false;
+            }
+        } else if (load < RECOVER && framesInTier >= recoverFrames) {
+            next = tier.higher();
+            raised = next != tier;
+        }
+        if (next == tier) {
+            return false;
+        }
+        tier = next;
+        framesInTier = 0;
+        return true;
+    }
+
+    /**
+     * Returns the smoothed share of the budget used by the frames.
+     *
+     * @return the load, 1 for frames that take the whole budget
+     */
+    public double getLoad() {
+        return load;
+    }
+
+    /**
+     * Returns the tier of detail the frames should be drawn in.
+     *
+     * @return the tier of detail
+     */
+    public DetailTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Indicates whether the frames took too long to be drawn in full detail.
+     *
+     * @return true if the tier is lower than the full detail, false otherwise
+     */
+    public boolean isOverloaded() {
+        return tier != DetailTier.FULL;
+    }
+}
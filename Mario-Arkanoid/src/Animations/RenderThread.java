@@ -0,0 +1,113 @@
+package Animations;
+
+import Rendering.BatchingDrawSurface;
+import Rendering.TripleBuffer;
+import biuoop.DrawSurface;
+import biuoop.GUI;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The RenderThread class shows frames on the window from a thread of its own.
+ * The thread that runs the animation records every frame into the back of a triple buffer and publishes it.
+ * The render thread takes the newest published frame, draws it on the window and shows it,
+ * so a slow window never holds up the ticks of the animation, and old frames are simply skipped.
+ * While the render thread runs, it is the only thread that may use the window.
+ */
+public class RenderThread {
+    // How long the render thread waits for a new frame before looking again
+    private static final long IDLE_NANOS = 2000000L;
+
+    private final GUI gui;
+    private final TripleBuffer<BatchingDrawSurface> frames;
+    private volatile boolean running;
+    private Thread thread;
+    private FrameStats stats;
+
+    /**
+     * Constructs a RenderThread that shows the frames of the given buffer on the given window.
+     * The thread is only started by start().
+     *
+     * @param gui    the window to show the frames on
+     * @param frames the buffer the frames are published to
+     */
+    public RenderThread(GUI gui, TripleBuffer<BatchingDrawSurface> frames) {
+        this.gui = gui;
+        this.frames = frames;
+    }
+
+    /**
+     * Sets the statistics the time of showing every frame is recorded in.
+     * Must be called while the thread does not run.
+     *
+     * @param stats the statistics, or null to record nothing
+     */
+    public void setFrameStats(FrameStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Starts showing the published frames. Does nothing if the thread already runs.
+     */
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::loop, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Lets the render thread know that a new frame was published.
+     */
+    public void wake() {
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Stops the render thread and waits for it to end, dropping the frame it did not take yet.
+     * Afterwards the window may be used by the calling thread again.
+     */
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        thread = null;
+        frames.take();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        while (running) {
+            BatchingDrawSurface frame = frames.take();
+            if (frame == null) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+                continue;
+            }
+            long start = System.nanoTime();
+            DrawSurface d = gui.getDrawSurface();
+            frame.flush(d);
+            gui.show(d);
+            if (stats != null) {
+                stats.record(FrameStats.Phase.SHOW, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package Animations;
+
+import biuoop.DrawSurface;
+
+/**
+ * The SteppedAnimation interface is an Animation whose simulation can be advanced separately
+ * from its drawing. The AnimationRunner advances it in ticks of fixed length, and draws it
+ * between the last two ticks, so the simulation speed does not depend on the drawing speed.
+ */
+public interface SteppedAnimation extends Animation {
+
+    /**
+     * Advances the simulation of the animation by one fixed tick, without drawing anything.
+     */
+    void step();
+
+    /**
+     * Draws the animation between its state before the last tick and its current state.
+     *
+     * @param d     the surface to draw on
+     * @param alpha how far to go from the previous state to the current one, between 0 and 1
+     */
+    void render(DrawSurface d, double alpha);
+}
@@ -0,0 +1,330 @@
+package Collidables;
+
+import Geometry.Rectangle;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The Collidables.CollidableGrid class is a uniform grid index over the collision rectangles
+ * of collidable objects. Each collidable is stored in every cell its rectangle overlaps, so a
+ * trajectory only has to look at the collidables stored in the cells it crosses instead of
+ * at every collidable in the game.
+ * Rectangles that reach outside the grid are clamped into the border cells.
+ */
+public class CollidableGrid {
+    // Extra room around every stored rectangle, so hits found within the Line epsilon are never missed
+    private static final double EPSILON_PADDING = 0.5;
+
+    private final double cellSize;
+    private final double padding;
+    private final int columns;
+    private final int rows;
+    private final Cell[] cells;
+    private final Map<Collidable, Entry> entries = new IdentityHashMap<>();
+    private long nextOrder;
+
+    /**
+     * Constructs an empty grid covering the area from (0, 0) to (width, height).
+     *
+     * @param width    the width of the area covered by the grid
+     * @param height   the height of the area covered by the grid
+     * @param cellSize the width and height of a single cell
+     */
+    public CollidableGrid(double width, double height, double cellSize) {
+        this(width, height, cellSize, 0);
+    }
+
+    /**
+     * Constructs an empty grid covering the area from (0, 0) to (width, height), that also answers
+     * queries for circles up to the given radius. Every rectangle is stored in all the cells within
+     * that radius of it, so walking the cells crossed by the center of a circle is enough.
+     *
+     * @param width     the width of the area covered by the grid
+     * @param height    the height of the area covered by the grid
+     * @param cellSize  the width and height of a single cell
+     * @param maxRadius the largest circle radius the grid has to answer for
+     */
+    public CollidableGrid(double width, double height, double cellSize, double maxRadius) {
+        this.cellSize = cellSize;
+        this.padding = EPSILON_PADDING + maxRadius;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new Cell[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+        }
+    }
+
+    /**
+     * Adds a collidable to the grid. Collidables added later come later in the insertion order.
+     *
+     * @param c the collidable to add
+     */
+    public void insert(Collidable c) {
+        if (entries.containsKey(c)) {
+            return;
+        }
+        Entry entry = new Entry(c, nextOrder++);
+        entries.put(c, entry);
+        place(entry);
+    }
+
+    /**
+     * Removes a collidable from the grid. Does nothing if the collidable is not in the grid.
+     *
+     * @param c the collidable to remove
+     */
+    public void remove(Collidable c) {
+        Entry entry = entries.remove(c);
+        if (entry != null) {
+            unplace(entry);
+        }
+    }
+
+    /**
+     * Moves a collidable to the cells matching its current collision rectangle.
+     * Must be called whenever the rectangle of a collidable in the grid moves.
+     * The collidable keeps its place in the insertion order.
+     *
+     * @param c the collidable that moved
+     */
+    public void update(Collidable c) {
+        Entry entry = entries.get(c);
+        if (entry == null) {
+            return;
+        }
+        Rectangle rect = c.getCollisionRectangle();
+        if (column(rect.getUpperLeft().getX() - padding) == entry.minCol
+                && row(rect.getUpperLeft().getY() - padding) == entry.minRow
+                && column(rect.getUpperLeft().getX() + rect.getWidth() + padding) == entry.maxCol
+                && row(rect.getUpperLeft().getY() + rect.getHeight() + padding) == entry.maxRow) {
+            return;
+        }
+        unplace(entry);
+        place(entry);
+    }
+
+    /**
+     * Returns the number of collidables in the grid.
+     *
+     * @return the number of collidables
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Creates a new cursor for walking the cells crossed by segments of this grid.
+     * A cursor holds the state of one walk at a time.
+     *
+     * @return a new cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void place(Entry entry) {
+        Rectangle rect = entry.collidable.getCollisionRectangle();
+        double x = rect.getUpperLeft().getX();
+        double y = rect.getUpperLeft().getY();
+        entry.minCol = column(x - padding);
+        entry.minRow = row(y - padding);
+        entry.maxCol = column(x + rect.getWidth() + padding);
+        entry.maxRow = row(y + rect.getHeight() + padding);
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells[r * columns + col].add(entry);
+            }
+        }
+    }
+
+    private void unplace(Entry entry) {
+        for (int r = entry.minRow; r <= entry.maxRow; r++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells[r * columns + col].remove(entry);
+            }
+        }
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor(x / cellSize), columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor(y / cellSize), rows);
+    }
+
+    private static int clamp(int index, int count) {
+        if (index < 0) {
+            return 0;
+        }
+        return Math.min(index, count - 1);
+    }
+
+    /**
+     * A collidable stored in the grid, together with the range of cells it occupies.
+     */
+    private static final class Entry {
+        private final Collidable collidable;
+        private final long order;
+        private int minCol, minRow, maxCol, maxRow;
+
+        private Entry(Collidable collidable, long order) {
+            this.collidable = collidable;
+            this.order = order;
+        }
+    }
+
+    /**
+     * A single cell of the grid, holding the entries that overlap it.
+     */
+    private static final class Cell {
+        private Entry[] items = new Entry[4];
+        private int size;
+
+        private void add(Entry entry) {
+            if (size == items.length) {
+                Entry[] bigger = new Entry[size * 2];
+                System.arraycopy(items, 0, bigger, 0, size);
+                items = bigger;
+            }
+            items[size++] = entry;
+        }
+
+        private void remove(Entry entry) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == entry) {
+                    items[i] = items[--size];
+                    items[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * A Cursor walks the cells crossed by a segment, in order from the start of the segment
+     * to its end, using a 2D DDA traversal. Every cell is visited at most once.
+     * The collidables of the current cell are read with size(), collidable(i) and order(i).
+     * A collidable overlapping several crossed cells is reported once per cell.
+     */
+    public final class Cursor {
+        private int col, row;
+        private int endCol, endRow;
+        private int stepCol, stepRow;
+        private double tMaxX, tMaxY, tDeltaX, tDeltaY;
+        private int remaining;
+        private boolean started;
+        private int lastCell;
+        private boolean onBorder;
+        private Cell current;
+
+        private Cursor() {
+        }
+
+        /**
+         * Starts a walk along the segment from (x1, y1) to (x2, y2).
+         *
+         * @param x1 the x-coordinate of the start of the segment
+         * @param y1 the y-coordinate of the start of the segment
+         * @param x2 the x-coordinate of the end of the segment
+         * @param y2 the y-coordinate of the end of the segment
+         */
+        public void begin(double x1, double y1, double x2, double y2) {
+            col = (int) Math.floor(x1 / cellSize);
+            row = (int) Math.floor(y1 / cellSize);
+            endCol = (int) Math.floor(x2 / cellSize);
+            endRow = (int) Math.floor(y2 / cellSize);
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            stepCol = Integer.signum(endCol - col);
+            stepRow = Integer.signum(endRow - row);
+            tDeltaX = stepCol == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+            tDeltaY = stepRow == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+            tMaxX = stepCol > 0 ? ((col + 1) * cellSize - x1) / dx
+                    : stepCol < 0 ? (col * cellSize - x1) / dx : Double.POSITIVE_INFINITY;
+            tMaxY = stepRow > 0 ? ((row + 1) * cellSize - y1) / dy
+                    : stepRow < 0 ? (row * cellSize - y1) / dy : Double.POSITIVE_INFINITY;
+            remaining = Math.abs(endCol - col) + Math.abs(endRow - row) + 1;
+            started = false;
+            lastCell = -1;
+            current = null;
+        }
+
+        /**
+         * Moves to the next cell crossed by the segment.
+         *
+         * @return true if there is such a cell, false if the walk is over
+         */
+        public boolean next() {
+            while (remaining > 0) {
+                if (started) {
+                    // Step into the neighbouring cell the segment reaches first
+                    if (row == endRow || (col != endCol && tMaxX < tMaxY)) {
+                        col += stepCol;
+                        tMaxX += tDeltaX;
+                    } else {
+                        row += stepRow;
+                        tMaxY += tDeltaY;
+                    }
+                }
+                started = true;
+                remaining--;
+                int index = clamp(row, rows) * columns + clamp(col, columns);
+                // Border cells also hold everything clamped into them, so they have no exact extent
+                onBorder = row <= 0 || row >= rows - 1 || col <= 0 || col >= columns - 1;
+                if (index != lastCell) {
+                    lastCell = index;
+                    current = cells[index];
+                    return true;
+                }
+            }
+            current = null;
+            return false;
+        }
+
+        /**
+         * Returns the fraction of the segment travelled when it leaves the current cell.
+         * Collidables that are not in the current cell can only be touched after that point.
+         *
+         * @return the fraction of the segment travelled when leaving the current cell,
+         * or negative infinity if it is unknown because the cell lies on the border of the grid
+         */
+        public double exitTime() {
+            if (onBorder) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return Math.min(tMaxX, tMaxY);
+        }
+
+        /**
+         * Returns the number of collidables in the current cell.
+         *
+         * @return the number of collidables in the current cell
+         */
+        public int size() {
+            return current.size;
+        }
+
+        /**
+         * Returns a collidable of the current cell.
+         *
+         * @param i the index of the collidable in the current cell
+         * @return the collidable
+         */
+        public Collidable collidable(int i) {
+            return current.items[i].collidable;
+        }
+
+        /**
+         * Returns the insertion order of a collidable of the current cell.
+         *
+         * @param i the index of the collidable in the current cell
+         * @return the insertion order, larger for collidables that were added later
+         */
+        public long order(int i) {
+            return current.items[i].order;
+        }
+    }
+}
@@ -4,10 +4,17 @@ import Geometry.Point;
 /**
  * The Collidables.CollisionInfo class stores information about a collision event,
  * including the point of collision and the collidable object involved.
+ * A CollisionInfo created with the no-argument constructor is a reusable result holder:
+ * queries fill it with set() and empty it with clear(), so no new object is needed per query.
+ * Such a holder also reuses a single point for the collision points of all its queries,
+ * so a point returned by collisionPoint() only holds until the next query.
  */
 public class CollisionInfo {
     private Point collision;
+    private Point reusable;
     private Collidable c;
+    private double x, y;
+    private double time;
 
     /**
      * Constructs a Collidables.CollisionInfo object with the specified collidable object and collision point.
@@ -18,6 +25,53 @@ public class CollisionInfo {
     public CollisionInfo(Collidable c, Point collision) {
         this.c = c;
         this.collision = collision;
+        if (collision != null) {
+            this.x = collision.getX();
+            this.y = collision.getY();
+        }
+    }
+
+    /**
+     * Constructs an empty Collidables.CollisionInfo, to be filled by a collision query.
+     */
+    public CollisionInfo() {
+        // Made now rather than on the first collision, which would allocate in the middle of a game
+        this.reusable = new Point(0, 0);
+        clear();
+    }
+
+    /**
+     * Stores a collision in this object, replacing the previous one.
+     *
+     * @param c    the collidable object involved in the collision
+     * @param x    the x-coordinate of the collision point
+     * @param y    the y-coordinate of the collision point
+     * @param time the fraction of the trajectory travelled when the collision occurs, between 0 and 1
+     */
+    public void set(Collidable c, double x, double y, double time) {
+        this.c = c;
+        this.x = x;
+        this.y = y;
+        this.time = time;
+        this.collision = null;
+    }
+
+    /**
+     * Empties this object, so it holds no collision.
+     */
+    public void clear() {
+        this.c = null;
+        this.collision = null;
+        this.time = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether this object holds a collision.
+     *
+     * @return true if a collision is stored, false otherwise
+     */
+    public boolean hasCollision() {
+        return c != null;
     }
 
     /**
@@ -26,9 +80,44 @@ public class CollisionInfo {
      * @return the point of collision
      */
     public Point collisionPoint() {
+        if (collision == null && c != null) {
+            if (reusable == null) {
+                reusable = new Point(x, y);
+            } else {
+                reusable.setLocation(x, y);
+            }
+            collision = reusable;
+        }
         return collision;
     }
 
+    /**
+     * Returns the x-coordinate of the collision point.
+     *
+     * @return the x-coordinate of the collision point
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the collision point.
+     *
+     * @return the y-coordinate of the collision point
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the fraction of the trajectory travelled when the collision occurs.
+     *
+     * @return a number between 0 and 1, or positive infinity if there is no collision
+     */
+    public double collisionTime() {
+        return time;
+    }
+
     /**
      * Returns the collidable object involved in the collision.
      *
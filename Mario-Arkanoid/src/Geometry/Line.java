@@ -3,11 +3,13 @@ import java.util.List;
 
 /**
  * Represents a line segment defined by two points in a 2D plane.
+ * The static methods are the intersection kernel of the game: they work on raw coordinates with
+ * cross products, so they create no objects and need no slopes, which are infinite for vertical lines.
  */
 public class Line {
     private double x1, y1;
     private double x2, y2;
-    private final double epsilon = 0.000001d;
+    private static final double EPSILON = 0.000001d;
 
     /**
      * Constructs a Geometry.Line object with the specified start and end points.
@@ -37,6 +39,21 @@ public class Line {
         this.y2 = y2;
     }
 
+    /**
+     * Moves the line to the given coordinates, in place.
+     *
+     * @param startX the x-coordinate of the start point
+     * @param startY the y-coordinate of the start point
+     * @param endX   the x-coordinate of the end point
+     * @param endY   the y-coordinate of the end point
+     */
+    void set(double startX, double startY, double endX, double endY) {
+        this.x1 = startX;
+        this.y1 = startY;
+        this.x2 = endX;
+        this.y2 = endY;
+    }
+
     /**
      * Calculates the length of the line.
      *
@@ -77,71 +94,51 @@ public class Line {
     }
 
     /**
-     * Checks if this line intersects with another line.
+     * Returns the x-coordinate of the start point of the line, without creating a point.
      *
-     * @param other the other line to check intersection with
-     * @return true if the lines intersect, false otherwise
+     * @return the x-coordinate of the start point
      */
-    public boolean isIntersecting(Line other) {
-        //check if one of the line is a point
-        if (this.start().equals(this.end())) {
-            if (other.start().equals(other.end())) {
-                if (this.start().equals(other.start())) {
-                    return true;
-                }
-                if (!this.start().equals(other.start())) {
-                    return false;
-                }
-            }
-            if (other.onLine(this.start())) {
-                return true;
-            }
-        }
-        if (other.start().equals(other.end())) {
-            if (this.onLine(other.start())) {
-                return true;
-            }
-        }
-
-        //check if one of the point of a line is on the other line
-        if (this.onLine(other.start()) || this.onLine(other.end())
-                || other.onLine(this.start()) || other.onLine(this.end())) {
-            return true;
-        }
+    public double getX1() {
+        return x1;
+    }
 
-        double thisIncline = (this.y2 - this.y1) / (this.x2 - this.x1);
-        double otherIncline = (other.y2 - other.y1) / (other.x2 - other.x1);
+    /**
+     * Returns the y-coordinate of the start point of the line, without creating a point.
+     *
+     * @return the y-coordinate of the start point
+     */
+    public double getY1() {
+        return y1;
+    }
 
-        //Check if the inclines are equal
-        if (Math.abs(thisIncline - otherIncline) <= epsilon) {
-            return false;
-        }
-        // Check if one of the inclines is infinity
-        if (Math.abs(thisIncline) == Double.POSITIVE_INFINITY) {
-            return this.checkThisInfinity(other, otherIncline);
-        }
-        if (Math.abs(otherIncline) == Double.POSITIVE_INFINITY) {
-            return other.checkThisInfinity(this, thisIncline);
-        }
+    /**
+     * Returns the x-coordinate of the end point of the line, without creating a point.
+     *
+     * @return the x-coordinate of the end point
+     */
+    public double getX2() {
+        return x2;
+    }
 
-        // Calculate the intersection point and check if it's in the range
-        double x = ((-(otherIncline * other.x1)) + other.y1 + (thisIncline * this.x1) - this.y1)
-                / (thisIncline - otherIncline);
-        double y = otherIncline * x - otherIncline * other.x1 + other.y1;
-        return (checkPointInRange(x, y, other));
+    /**
+     * Returns the y-coordinate of the end point of the line, without creating a point.
+     *
+     * @return the y-coordinate of the end point
+     */
+    public double getY2() {
+        return y2;
     }
 
     /**
-     * Checks if this line, with a vertical incline, intersects with another line.
+     * Checks if this line intersects with another line.
+     * Lines that touch at a single point or overlap along a stretch both intersect.
      *
-     * @param other        the other line to check intersection with
-     * @param otherIncline the incline of the other line
+     * @param other the other line to check intersection with
      * @return true if the lines intersect, false otherwise
      */
-    public boolean checkThisInfinity(Line other, double otherIncline) {
-        double x = this.x1;
-        double y = otherIncline * x - otherIncline * other.x1 + other.y1;
-        return checkPointInRange(x, y, other);
+    public boolean isIntersecting(Line other) {
+        return segmentIntersectionTime(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2)
+                != Double.POSITIVE_INFINITY;
     }
 
     /**
@@ -153,14 +150,7 @@ public class Line {
      * @return true if the point is within the range of both lines, false otherwise
      */
     public boolean checkPointInRange(double x, double y, Line other) {
-        return (x - Math.max(this.start().getX(), this.end().getX()) <= epsilon)
-                && (x - Math.min(this.start().getX(), this.end().getX()) >= -epsilon)
-                && (y - Math.min(this.start().getY(), this.end().getY()) >= -epsilon)
-                && (y - Math.max(this.start().getY(), this.end().getY()) <= epsilon)
-                && (x - Math.max(other.start().getX(), other.end().getX()) <= epsilon)
-                && (x - Math.min(other.start().getX(), other.end().getX()) >= -epsilon)
-                && (y - Math.min(other.start().getY(), other.end().getY()) >= -epsilon)
-                && (y - Math.max(other.start().getY(), other.end().getY()) <= epsilon);
+        return inRange(x, y, x1, y1, x2, y2) && inRange(x, y, other.x1, other.y1, other.x2, other.y2);
     }
 
     /**
@@ -176,60 +166,17 @@ public class Line {
 
     /**
      * Calculates the intersection point with another line, if it exists.
+     * Lines that overlap along a stretch have no single intersection point.
      *
      * @param other the other line to calculate the intersection with
-     * @return the intersection point if the lines intersect, null otherwise
+     * @return the intersection point if the lines intersect at a single point, null otherwise
      */
     public Point intersectionWith(Line other) {
-        //Check if the lines are equals
-        if (this.equals(other) && this.length() > epsilon) {
+        double t = segmentIntersectionTime(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2);
+        if (t == Double.POSITIVE_INFINITY || Double.isNaN(t)) {
             return null;
         }
-        //Check one of the start/end point of a line is the same that the start/end point of other line
-        if (this.start().equals(other.start()) || this.start().equals(other.end())) {
-            return this.start();
-        }
-        if (this.end().equals(other.start()) || this.end().equals(other.end())) {
-            return this.end();
-        }
-        //Check if one of the start/end point is on the other line
-        if (this.start().distance(this.end()) <= epsilon
-                && checkPointInRange(this.start().getX(), this.start().getY(), other)) {
-            return this.start();
-        }
-        if (other.start().distance(other.end()) <= epsilon
-                && checkPointInRange(other.start().getX(), other.start().getY(), this)) {
-            return other.start();
-        }
-        if (this.isIntersecting(other)) {
-            double thisIncline = (this.y2 - this.y1) / (this.x2 - this.x1);
-            double otherIncline = (other.y2 - other.y1) / (other.x2 - other.x1);
-            // Check if one of the inclines is infinity
-            if (Math.abs(thisIncline) == Double.POSITIVE_INFINITY) {
-                if (this.checkThisInfinity(other, otherIncline)) {
-                    double y = otherIncline * this.x1 - otherIncline * other.x1 + other.y1;
-                    return new Point(this.x1, y);
-                }
-            }
-            if (Math.abs(otherIncline) == Double.POSITIVE_INFINITY) {
-                if (other.checkThisInfinity(this, thisIncline)) {
-                    double y = thisIncline * other.x1 - thisIncline * this.x1 + this.y1;
-                    return new Point(other.x1, y);
-                }
-            }
-
-            // Calculate the x of the intersection point
-            double x = ((-(otherIncline * other.x1)) + other.y1 + (thisIncline * this.x1) - this.y1)
-                    / (thisIncline - otherIncline);
-            double y = thisIncline * x - thisIncline * this.x1 + this.y1;
-            if ((epsilon <= Math.max(this.x1, this.x2) - x)
-                    && (epsilon >= Math.min(this.x1, this.x2) - x)
-                    && (epsilon >= Math.min(this.y1, this.y2) - y)
-                    && (epsilon <= Math.max(this.y1, this.y2) - y)) {
-                return new Point(x, y);
-            }
-        }
-        return null;
+        return new Point(x1 + t * (x2 - x1), y1 + t * (y2 - y1));
     }
 
     /**
@@ -239,23 +186,205 @@ public class Line {
      * @return true if the lines are equal, false otherwise
      */
     public boolean equals(Line other) {
-        if ((this.start().equals(other.start()) || this.start().equals(other.end()))
-                && (this.end().equals(other.start()) || this.end().equals(other.end()))) {
-            return true;
-        }
-        return false;
+        return (samePoint(x1, y1, other.x1, other.y1) || samePoint(x1, y1, other.x2, other.y2))
+                && (samePoint(x2, y2, other.x1, other.y1) || samePoint(x2, y2, other.x2, other.y2));
     }
 
     /**
-     * Checks if a given point is on this line.
+     * Checks if a given point is on this line, up to a tiny distance.
      *
      * @param p the point to check
      * @return true if the point is on this line, false otherwise
      */
     public boolean onLine(Point p) {
-        return (p.distance(this.start()) + p.distance(this.end()) == this.length());
+        return onSegment(p.getX(), p.getY(), x1, y1, x2, y2);
     }
 
+    /**
+     * Returns the cross product of the vectors (ax, ay) and (bx, by).
+     * It is positive when b turns left from a, negative when it turns right, and 0 when they are parallel.
+     *
+     * @param ax the x-coordinate of the first vector
+     * @param ay the y-coordinate of the first vector
+     * @param bx the x-coordinate of the second vector
+     * @param by the y-coordinate of the second vector
+     * @return the cross product of the two vectors
+     */
+    public static double cross(double ax, double ay, double bx, double by) {
+        return ax * by - ay * bx;
+    }
+
+    /**
+     * Checks if the point (px, py) is on the segment from (x1, y1) to (x2, y2),
+     * up to a tiny distance, without creating any objects.
+     *
+     * @param px the x-coordinate of the point
+     * @param py the y-coordinate of the point
+     * @param x1 the x-coordinate of the start of the segment
+     * @param y1 the y-coordinate of the start of the segment
+     * @param x2 the x-coordinate of the end of the segment
+     * @param y2 the y-coordinate of the end of the segment
+     * @return true if the point is on the segment, false otherwise
+     */
+    public static boolean onSegment(double px, double py, double x1, double y1, double x2, double y2) {
+        double rx = x2 - x1;
+        double ry = y2 - y1;
+        double qx = px - x1;
+        double qy = py - y1;
+        double lengthSquared = rx * rx + ry * ry;
+        if (lengthSquared <= EPSILON * EPSILON) {
+            return qx * qx + qy * qy <= EPSILON * EPSILON;
+        }
+        // The distance of the point from the line is |cross| / length, and its position along it is dot / length
+        double length = Math.sqrt(lengthSquared);
+        double along = qx * rx + qy * ry;
+        return Math.abs(cross(qx, qy, rx, ry)) <= EPSILON * length
+                && along >= -EPSILON * length && along <= lengthSquared + EPSILON * length;
+    }
+
+    /**
+     * Finds where the segment from (x1, y1) to (x2, y2) meets the segment from (x3, y3) to (x4, y4),
+     * using cross products only, so vertical segments need no special case and no objects are created.
+     * Segments that miss each other by a tiny distance still meet.
+     *
+     * @param x1 the x-coordinate of the start of the first segment
+     * @param y1 the y-coordinate of the start of the first segment
+     * @param x2 the x-coordinate of the end of the first segment
+     * @param y2 the y-coordinate of the end of the first segment
+     * @param x3 the x-coordinate of the start of the second segment
+     * @param y3 the y-coordinate of the start of the second segment
+     * @param x4 the x-coordinate of the end of the second segment
+     * @param y4 the y-coordinate of the end of the second segment
+     * @return the fraction of the first segment travelled at the meeting point, between 0 and 1,
+     * NaN if the segments overlap along a stretch, or positive infinity if they do not meet
+     */
+    public static double segmentIntersectionTime(double x1, double y1, double x2, double y2,
+                                                 double x3, double y3, double x4, double y4) {
+        double rx = x2 - x1;
+        double ry = y2 - y1;
+        double sx = x4 - x3;
+        double sy = y4 - y3;
+        double qx = x3 - x1;
+        double qy = y3 - y1;
+        double rLengthSquared = rx * rx + ry * ry;
+        double sLengthSquared = sx * sx + sy * sy;
+        if (rLengthSquared <= EPSILON * EPSILON) {
+            // The first segment is a point
+            return onSegment(x1, y1, x3, y3, x4, y4) ? 0 : Double.POSITIVE_INFINITY;
+        }
+        double rLength = Math.sqrt(rLengthSquared);
+        if (sLengthSquared <= EPSILON * EPSILON) {
+            // The second segment is a point
+            if (!onSegment(x3, y3, x1, y1, x2, y2)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return clamp((qx * rx + qy * ry) / rLengthSquared);
+        }
+        double sLength = Math.sqrt(sLengthSquared);
+        double denominator = cross(rx, ry, sx, sy);
+        if (Math.abs(denominator) > EPSILON * rLength * sLength) {
+            double t = cross(qx, qy, sx, sy) / denominator;
+            double u = cross(qx, qy, rx, ry) / denominator;
+            if (t < -EPSILON / rLength || t > 1 + EPSILON / rLength
+                    || u < -EPSILON / sLength || u > 1 + EPSILON / sLength) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return clamp(t);
+        }
+        // Parallel segments only meet if they lie on the same line
+        if (Math.abs(cross(qx, qy, rx, ry)) > EPSILON * rLength) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t3 = (qx * rx + qy * ry) / rLengthSquared;
+        double t4 = ((x4 - x1) * rx + (y4 - y1) * ry) / rLengthSquared;
+        double first = Math.max(0, Math.min(t3, t4));
+        double last = Math.min(1, Math.max(t3, t4));
+        double slack = EPSILON / rLength;
+        if (first > last + slack) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return last - first > slack ? Double.NaN : clamp(first);
+    }
+
+    /**
+     * Finds the first point where the segment from (x1, y1) to (x2, y2) touches the boundary of the
+     * axis-aligned box from (left, top) to (right, bottom), without creating any objects.
+     * A segment that starts inside the box touches the boundary where it leaves it.
+     *
+     * @param x1     the x-coordinate of the start of the segment
+     * @param y1     the y-coordinate of the start of the segment
+     * @param x2     the x-coordinate of the end of the segment
+     * @param y2     the y-coordinate of the end of the segment
+     * @param left   the smallest x-coordinate of the box
+     * @param top    the smallest y-coordinate of the box
+     * @param right  the largest x-coordinate of the box
+     * @param bottom the largest y-coordinate of the box
+     * @return the fraction of the segment travelled at the first touch, between 0 and 1,
+     * or positive infinity if the segment does not touch the boundary
+     */
+    public static double segmentBoxHitTime(double x1, double y1, double x2, double y2,
+                                           double left, double top, double right, double bottom) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double best = edgeHitTime(x1, y1, dx, dy, top, left, right); // upper edge
+        best = Math.min(best, edgeHitTime(x1, y1, dx, dy, bottom, left, right)); // lower edge
+        best = Math.min(best, edgeHitTime(y1, x1, dy, dx, right, top, bottom)); // right edge
+        best = Math.min(best, edgeHitTime(y1, x1, dy, dx, left, top, bottom)); // left edge
+        return best;
+    }
+
+    /**
+     * Finds where a segment first touches an axis-aligned edge. The edge lies on the line
+     * v = level and spans u from min to max, where u and v are the axes along and across the edge.
+     *
+     * @param u  the u-coordinate of the start of the segment
+     * @param v  the v-coordinate of the start of the segment
+     * @param du the change of u along the segment
+     * @param dv the change of v along the segment
+     * @param level the v-coordinate of the edge
+     * @param min   the smallest u-coordinate of the edge
+     * @param max   the largest u-coordinate of the edge
+     * @return the fraction of the segment travelled at the touch, or positive infinity if there is none
+     */
+    private static double edgeHitTime(double u, double v, double du, double dv,
+                                      double level, double min, double max) {
+        if (Math.abs(dv) <= EPSILON) {
+            // The segment runs along the edge: it touches it only if it lies on the same line
+            if (Math.abs(v - level) > EPSILON) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (u >= min - EPSILON && u <= max + EPSILON) {
+                return 0;
+            }
+            if (du == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double t = ((u < min ? min : max) - u) / du;
+            return t >= 0 && t <= 1 ? t : Double.POSITIVE_INFINITY;
+        }
+        double t = (level - v) / dv;
+        if (t < -EPSILON || t > 1 + EPSILON) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double at = u + t * du;
+        if (at < min - EPSILON || at > max + EPSILON) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return clamp(t);
+    }
+
+    private static double clamp(double t) {
+        return Math.max(0, Math.min(1, t));
+    }
+
+    private static boolean samePoint(double ax, double ay, double bx, double by) {
+        return Math.abs(ax - bx) <= EPSILON && Math.abs(ay - by) <= EPSILON;
+    }
+
+    private static boolean inRange(double x, double y, double x1, double y1, double x2, double y2) {
+        return x - Math.max(x1, x2) <= EPSILON && x - Math.min(x1, x2) >= -EPSILON
+                && y - Math.min(y1, y2) >= -EPSILON && y - Math.max(y1, y2) <= EPSILON;
+    }
 
     /**
      * Calculates the closest intersection point to the start of the line with a given rectangle.
@@ -266,8 +395,9 @@ public class Line {
     public Point closestIntersectionToStartOfLine(Rectangle rect) {
         List<Point> intersections = rect.intersectionPoints(this);
         Point closest = null;
+        Point start = this.start();
         for (Point intersection : intersections) {
-            if ((closest == null) || intersection.distance(this.start()) < intersection.distance(closest)) {
+            if ((closest == null) || intersection.distance(start) < closest.distance(start)) {
                 closest = intersection;
             }
         }
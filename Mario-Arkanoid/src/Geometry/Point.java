@@ -19,6 +19,18 @@ public class Point {
         this.y = y;
     }
 
+    /**
+     * Moves this point to the given coordinates, in place.
+     * Only the owner of a point may move it, since every object holding it sees it move.
+     *
+     * @param newX the new x-coordinate of the point
+     * @param newY the new y-coordinate of the point
+     */
+    public void setLocation(double newX, double newY) {
+        this.x = newX;
+        this.y = newY;
+    }
+
     /**
      * Calculates the Euclidean distance between this point and another point.
      *
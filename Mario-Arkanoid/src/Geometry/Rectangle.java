@@ -7,9 +7,12 @@ import java.util.List;
  * It is defined by its upper-left corner, width, and height.
  */
 public class Rectangle {
+    private static final double EPSILON = 0.000001d;
     private Point upperLeft;
     private double width, height;
     private Line[] edges = new Line[4];
+    // Whether upperLeft was created by this rectangle, and may be moved in place
+    private boolean ownsUpperLeft;
 
     /**
      * Constructs a new rectangle with the specified upper-left corner,
@@ -39,6 +42,28 @@ public class Rectangle {
      */
     public void setUpperLeft(Point upperLeft) {
         this.upperLeft = upperLeft;
+        this.ownsUpperLeft = false;
+    }
+
+    /**
+     * Moves the rectangle so its upper-left corner is at the given coordinates, together with its edges.
+     * The rectangle is moved in place: after the first move, no object is created by moving it again.
+     *
+     * @param x the new x-coordinate of the upper-left corner
+     * @param y the new y-coordinate of the upper-left corner
+     */
+    public void moveTo(double x, double y) {
+        if (ownsUpperLeft) {
+            upperLeft.setLocation(x, y);
+        } else {
+            // The point may be shared with whoever gave it, so the rectangle takes a point of its own
+            upperLeft = new Point(x, y);
+            ownsUpperLeft = true;
+        }
+        edges[0].set(x, y, x + width, y); // upper edge
+        edges[1].set(x, y + height, x + width, y + height); // lower edge
+        edges[2].set(x + width, y, x + width, y + height); // right edge
+        edges[3].set(x, y, x, y + height); // left edge
     }
 
     /**
@@ -49,15 +74,161 @@ public class Rectangle {
      */
     public List<Point> intersectionPoints(Line line) {
         List<Point> intersections = new ArrayList<>();
-        for (Line edge : edges) {
-            if (line.isIntersecting(edge)) {
-                Point intersection = line.intersectionWith(edge);
-                if (intersection != null && !intersections.contains(intersection)) {
-                    intersections.add(intersection);
-                }
+        double x1 = line.getX1();
+        double y1 = line.getY1();
+        double x2 = line.getX2();
+        double y2 = line.getY2();
+        double left = upperLeft.getX();
+        double top = upperLeft.getY();
+        double right = left + width;
+        double bottom = top + height;
+        addIntersection(intersections, x1, y1, x2, y2, left, top, right, top); // upper edge
+        addIntersection(intersections, x1, y1, x2, y2, left, bottom, right, bottom); // lower edge
+        addIntersection(intersections, x1, y1, x2, y2, right, top, right, bottom); // right edge
+        addIntersection(intersections, x1, y1, x2, y2, left, top, left, bottom); // left edge
+        return intersections;
+    }
+
+    private static void addIntersection(List<Point> intersections, double x1, double y1, double x2, double y2,
+                                        double x3, double y3, double x4, double y4) {
+        double t = Line.segmentIntersectionTime(x1, y1, x2, y2, x3, y3, x4, y4);
+        if (t == Double.POSITIVE_INFINITY || Double.isNaN(t)) {
+            return;
+        }
+        Point intersection = new Point(x1 + t * (x2 - x1), y1 + t * (y2 - y1));
+        for (Point p : intersections) {
+            if (p.equals(intersection)) {
+                return;
             }
         }
-        return intersections;
+        intersections.add(intersection);
+    }
+
+    /**
+     * Finds the first point where the segment from (x1, y1) to (x2, y2) touches the boundary
+     * of this rectangle, without creating any objects.
+     * A segment that starts inside the rectangle touches the boundary where it leaves it.
+     *
+     * @param x1 the x-coordinate of the start of the segment
+     * @param y1 the y-coordinate of the start of the segment
+     * @param x2 the x-coordinate of the end of the segment
+     * @param y2 the y-coordinate of the end of the segment
+     * @return the fraction of the segment travelled at the first touch, between 0 and 1,
+     * or positive infinity if the segment does not touch the boundary
+     */
+    public double firstHitTime(double x1, double y1, double x2, double y2) {
+        double left = upperLeft.getX();
+        double top = upperLeft.getY();
+        return Line.segmentBoxHitTime(x1, y1, x2, y2, left, top, left + width, top + height);
+    }
+
+    /**
+     * Finds the time of impact of a circle moving by (dx, dy) from center (cx, cy) with this rectangle.
+     * The circle hits the rectangle when its center reaches the rectangle grown by the radius,
+     * with rounded corners, so fast circles cannot pass through thin rectangles or clip corners.
+     * A circle that already overlaps the rectangle hits it at once, unless it is moving away from it.
+     *
+     * @param cx     the x-coordinate of the center of the circle at the start of the move
+     * @param cy     the y-coordinate of the center of the circle at the start of the move
+     * @param dx     the change of x during the move
+     * @param dy     the change of y during the move
+     * @param radius the radius of the circle
+     * @return the fraction of the move done when the circle first touches the rectangle,
+     * between 0 and 1, or positive infinity if it does not touch it during the move
+     */
+    public double sweptCircleHitTime(double cx, double cy, double dx, double dy, double radius) {
+        double left = upperLeft.getX();
+        double top = upperLeft.getY();
+        double right = left + width;
+        double bottom = top + height;
+        // Already touching: a hit only if the circle is inside or moving further in
+        double awayX = cx - clamp(cx, left, right);
+        double awayY = cy - clamp(cy, top, bottom);
+        if (awayX * awayX + awayY * awayY <= radius * radius) {
+            boolean inside = awayX == 0 && awayY == 0;
+            return inside || awayX * dx + awayY * dy < 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        // Enter time into the rectangle grown by the radius on every side
+        double enter = 0;
+        double exit = 1;
+        if (Math.abs(dx) <= EPSILON) {
+            if (cx < left - radius || cx > right + radius) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (left - radius - cx) / dx;
+            double t2 = (right + radius - cx) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (Math.abs(dy) <= EPSILON) {
+            if (cy < top - radius || cy > bottom + radius) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (top - radius - cy) / dy;
+            double t2 = (bottom + radius - cy) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (enter > exit) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // Entering next to a face is a hit; entering next to a corner must also reach the rounded corner
+        double x = cx + enter * dx;
+        double y = cy + enter * dy;
+        boolean besideX = x < left || x > right;
+        boolean besideY = y < top || y > bottom;
+        if (!besideX || !besideY) {
+            return enter;
+        }
+        return cornerHitTime(cx - (x < left ? left : right), cy - (y < top ? top : bottom), dx, dy, radius);
+    }
+
+    /**
+     * Finds when a circle moving by (dx, dy) first touches a corner point.
+     *
+     * @param mx     the x-coordinate of the start of the center, relative to the corner
+     * @param my     the y-coordinate of the start of the center, relative to the corner
+     * @param dx     the change of x during the move
+     * @param dy     the change of y during the move
+     * @param radius the radius of the circle
+     * @return the fraction of the move done at the touch, or positive infinity if there is none
+     */
+    private static double cornerHitTime(double mx, double my, double dx, double dy, double radius) {
+        double a = dx * dx + dy * dy;
+        double b = mx * dx + my * dy;
+        double c = mx * mx + my * my - radius * radius;
+        double discriminant = b * b - a * c;
+        if (a == 0 || discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t >= 0 && t <= 1 ? t : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the x-coordinate of the point of this rectangle closest to the given x-coordinate.
+     *
+     * @param x the x-coordinate
+     * @return the closest x-coordinate inside this rectangle
+     */
+    public double closestX(double x) {
+        return clamp(x, upperLeft.getX(), upperLeft.getX() + width);
+    }
+
+    /**
+     * Returns the y-coordinate of the point of this rectangle closest to the given y-coordinate.
+     *
+     * @param y the y-coordinate
+     * @return the closest y-coordinate inside this rectangle
+     */
+    public double closestY(double y) {
+        return clamp(y, upperLeft.getY(), upperLeft.getY() + height);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
     }
 
     /**
@@ -1,10 +1,21 @@
 package Level;
+
+import java.util.Arrays;
+
 /**
  * The Level.Counter class is used for counting things. It includes methods to increase,
  * decrease, and get the current count.
+ * Listeners may be added to be told of every change of the count, right after it happens.
+ * They are kept in an array that is only copied when a listener is added or removed,
+ * so changing the count allocates nothing. The array is replaced under the lock of the counter
+ * and read through a volatile field, so a listener added on one thread is seen by the others.
+ * The count itself is a plain int, changed by one thread; Level.StripedCounter is the counter
+ * that several threads may change at once.
  */
 public class Counter {
+    private static final Listener[] NO_LISTENERS = new Listener[0];
     private int count;
+    private volatile Listener[] listeners = NO_LISTENERS;
 
     /**
      * Constructs a Level.Counter with the specified initial count.
@@ -21,7 +32,9 @@ public class Counter {
      * @param number the number to add
      */
     public void increase(int number) {
+        int oldValue = count;
         count += number;
+        notifyChanged(oldValue, count);
     }
 
     /**
@@ -30,7 +43,9 @@ public class Counter {
      * @param number the number to subtract
      */
     public void decrease(int number) {
+        int oldValue = count;
         count -= number;
+        notifyChanged(oldValue, count);
     }
 
     /**
@@ -41,5 +56,82 @@ public class Counter {
     public int getValue() {
         return count;
     }
-}
 
+    /**
+     * Returns the count the listeners were last told of, which is the count a display of the counter shows.
+     * Every change of this counter is told right away, so it is the current count.
+     *
+     * @return the count the listeners were last told of
+     */
+    public int getPublishedValue() {
+        return count;
+    }
+
+    /**
+     * Adds a listener to be told of every change of the count.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addListener(Listener listener) {
+        Listener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+        more[listeners.length] = listener;
+        listeners = more;
+    }
+
+    /**
+     * Removes a listener, so it is no longer told of the changes of the count.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void removeListener(Listener listener) {
+        Listener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                Listener[] fewer = new Listener[current.length - 1];
+                System.arraycopy(current, 0, fewer, 0, i);
+                System.arraycopy(current, i + 1, fewer, i, current.length - i - 1);
+                listeners = fewer;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of listeners told of the changes of the count.
+     *
+     * @return the number of listeners
+     */
+    public int getListenerCount() {
+        return listeners.length;
+    }
+
+    /**
+     * Tells all the listeners that the count changed, if it did.
+     *
+     * @param oldValue the count before the change
+     * @param newValue the count after the change
+     */
+    protected void notifyChanged(int oldValue, int newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        Listener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            current[i].counterChanged(this, oldValue);
+        }
+    }
+
+    /**
+     * Is told whenever the count of a counter changes.
+     */
+    public interface Listener {
+
+        /**
+         * Called right after the count of the counter changed.
+         *
+         * @param counter  the counter that changed
+         * @param oldValue the count before the change
+         */
+        void counterChanged(Counter counter, int oldValue);
+    }
+}
@@ -0,0 +1,38 @@
+package Level;
+
+/**
+ * The Level.CounterSnapshot class holds the count of a Level.StripedCounter as it was last published,
+ * for readers that look at it often, like a Sprites.Hud that checks it every tick.
+ * Reading it is a single volatile read, however many cells the counter spreads its count over,
+ * and it may be read on any thread.
+ */
+public class CounterSnapshot {
+    private volatile int value;
+
+    /**
+     * Constructs a Level.CounterSnapshot of the given count.
+     *
+     * @param value the count
+     */
+    CounterSnapshot(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the count as it was last published.
+     *
+     * @return the published count
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Publishes a new count.
+     *
+     * @param value the count
+     */
+    void set(int value) {
+        this.value = value;
+    }
+}
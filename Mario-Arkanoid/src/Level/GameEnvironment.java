@@ -1,5 +1,6 @@
 package Level;
 import Collidables.Collidable;
+import Collidables.CollidableGrid;
 import Collidables.CollisionInfo;
 import Geometry.Line;
 
@@ -8,9 +9,20 @@ import java.util.List;
 /**
  * The Level.GameEnvironment class manages a collection of collidable objects
  * and handles collision detection for objects moving within the game.
+ * The collidables are kept in a SlotMap, in the order they were added, and a collidable is removed
+ * in constant time with the handle it got when it was added.
  */
 public class GameEnvironment {
-    private List<Collidable> blocks;
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+    private static final double CELL_SIZE = 40;
+    // The largest circle the grid walk answers for; larger circles check every collidable
+    private static final double MAX_RADIUS = 10;
+
+    private SlotMap<Collidable> blocks = new SlotMap<>();
+    private CollidableGrid grid;
+    private CollidableGrid.Cursor cursor;
+    private long changes;
 
     /**
      * Constructs a Level.GameEnvironment with a given list of collidable objects.
@@ -18,16 +30,36 @@ public class GameEnvironment {
      * @param blocks the list of collidable objects
      */
     public GameEnvironment(List<Collidable> blocks) {
-        this.blocks = blocks;
+        this.grid = new CollidableGrid(WIDTH, HEIGHT, CELL_SIZE, MAX_RADIUS);
+        this.cursor = grid.cursor();
+        for (Collidable block : blocks) {
+            this.blocks.add(block);
+            grid.insert(block);
+        }
     }
 
     /**
      * Adds the given collidable object to the environment.
      *
      * @param c the collidable object to add
+     * @return the handle that removes the collidable with removeCollidable(long)
+     */
+    public long addCollidable(Collidable c) {
+        long handle = blocks.add(c);
+        grid.insert(c);
+        changes++;
+        return handle;
+    }
+
+    /**
+     * Tells the environment that the collision rectangle of a collidable has moved,
+     * so it can be found in its new place.
+     *
+     * @param c the collidable that moved
      */
-    public void addCollidable(Collidable c) {
-        blocks.add(c);
+    public void updateCollidable(Collidable c) {
+        grid.update(c);
+        changes++;
     }
 
     /**
@@ -40,34 +72,194 @@ public class GameEnvironment {
      * @return the information about the closest collision, or null if no collision occurs
      */
     public CollisionInfo getClosestCollision(Line trajectory) {
-        CollisionInfo closest = null;
-        for (Collidable block : blocks) {
-            Line[] rectangle = block.getCollisionRectangle().getEdges();
-            for (Line edge : rectangle) {
-                if (edge.isIntersecting(trajectory)) {
-                    closest = new CollisionInfo(block,
-                            trajectory.closestIntersectionToStartOfLine(block.getCollisionRectangle()));
+        CollisionInfo closest = new CollisionInfo();
+        if (!findClosestCollision(trajectory.getX1(), trajectory.getY1(),
+                trajectory.getX2(), trajectory.getY2(), closest)) {
+            return null;
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the nearest collision of an object moving from (x1, y1) to (x2, y2) and writes it
+     * into the given result holder, without creating any objects.
+     * Only the collidables in the grid cells crossed by the trajectory are checked, and the walk
+     * stops as soon as no collidable further along can be hit first.
+     * When two collidables are hit at the same point, the one added first is reported.
+     *
+     * @param x1     the x-coordinate of the start of the trajectory
+     * @param y1     the y-coordinate of the start of the trajectory
+     * @param x2     the x-coordinate of the end of the trajectory
+     * @param y2     the y-coordinate of the end of the trajectory
+     * @param result the holder that receives the nearest collision, or is cleared if there is none
+     * @return true if a collision occurs, false otherwise
+     */
+    public boolean findClosestCollision(double x1, double y1, double x2, double y2, CollisionInfo result) {
+        return findClosest(x1, y1, x2, y2, 0, result, cursor);
+    }
+
+    /**
+     * Finds the nearest collision of a circle whose center moves from (x1, y1) to (x2, y2) and
+     * writes it into the given result holder, without creating any objects.
+     * The whole circle is swept along the move, so it cannot pass through thin collidables
+     * or clip their corners. The collision point is the point of the collidable that the circle
+     * touches first, and the collision time tells how far the center got before the touch.
+     * A circle that already overlaps a collidable and is not moving away from it hits it at time 0.
+     *
+     * @param x1     the x-coordinate of the center at the start of the move
+     * @param y1     the y-coordinate of the center at the start of the move
+     * @param x2     the x-coordinate of the center at the end of the move
+     * @param y2     the y-coordinate of the center at the end of the move
+     * @param radius the radius of the circle
+     * @param result the holder that receives the nearest collision, or is cleared if there is none
+     * @return true if a collision occurs, false otherwise
+     */
+    public boolean findClosestCollision(double x1, double y1, double x2, double y2, double radius,
+                                        CollisionInfo result) {
+        return findClosestCollision(x1, y1, x2, y2, radius, result, cursor);
+    }
+
+    /**
+     * Finds the nearest collision of a moving circle like findClosestCollision(x1, y1, x2, y2, radius, result),
+     * walking the grid with the given cursor instead of the one of the environment.
+     * Since the environment is only read, several threads may look up collisions at the same time,
+     * each with a cursor and a result holder of its own, as long as no collidable is added, moved
+     * or removed meanwhile.
+     *
+     * @param x1     the x-coordinate of the center at the start of the move
+     * @param y1     the y-coordinate of the center at the start of the move
+     * @param x2     the x-coordinate of the center at the end of the move
+     * @param y2     the y-coordinate of the center at the end of the move
+     * @param radius the radius of the circle
+     * @param result the holder that receives the nearest collision, or is cleared if there is none
+     * @param walker the cursor used to walk the grid, created by newCursor()
+     * @return true if a collision occurs, false otherwise
+     */
+    public boolean findClosestCollision(double x1, double y1, double x2, double y2, double radius,
+                                        CollisionInfo result, CollidableGrid.Cursor walker) {
+        if (radius > MAX_RADIUS) {
+            return findClosestInAll(x1, y1, x2, y2, radius, result);
+        }
+        return findClosest(x1, y1, x2, y2, radius, result, walker);
+    }
+
+    /**
+     * Creates a new cursor over the grid of the environment, for looking up collisions on another thread.
+     *
+     * @return a new cursor
+     */
+    public CollidableGrid.Cursor newCursor() {
+        return grid.cursor();
+    }
+
+    /**
+     * Returns the number of times a collidable was added to the environment or moved in it.
+     * Removing collidables does not count, since it can only take collisions away.
+     *
+     * @return the number of additions and moves so far
+     */
+    public long getChangeCount() {
+        return changes;
+    }
+
+    private boolean findClosest(double x1, double y1, double x2, double y2, double radius, CollisionInfo result,
+                                CollidableGrid.Cursor cursor) {
+        Collidable closest = null;
+        long closestOrder = Long.MAX_VALUE;
+        double closestTime = Double.POSITIVE_INFINITY;
+        cursor.begin(x1, y1, x2, y2);
+        while (cursor.next()) {
+            for (int i = 0; i < cursor.size(); i++) {
+                Collidable block = cursor.collidable(i);
+                double time = hitTime(block, x1, y1, x2, y2, radius);
+                if (time == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                if (time < closestTime || (time == closestTime && cursor.order(i) < closestOrder)) {
+                    closest = block;
+                    closestOrder = cursor.order(i);
+                    closestTime = time;
                 }
             }
+            if (closest != null && closestTime <= cursor.exitTime()) {
+                break;
+            }
         }
-        return closest;
+        return store(closest, closestTime, x1, y1, x2, y2, radius, result);
+    }
+
+    private boolean findClosestInAll(double x1, double y1, double x2, double y2, double radius,
+                                     CollisionInfo result) {
+        Collidable closest = null;
+        double closestTime = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < blocks.end(); i++) {
+            Collidable block = blocks.at(i);
+            if (block == null) {
+                continue;
+            }
+            double time = hitTime(block, x1, y1, x2, y2, radius);
+            if (time < closestTime) {
+                closest = block;
+                closestTime = time;
+            }
+        }
+        return store(closest, closestTime, x1, y1, x2, y2, radius, result);
+    }
+
+    private static double hitTime(Collidable block, double x1, double y1, double x2, double y2, double radius) {
+        if (radius == 0) {
+            return block.getCollisionRectangle().firstHitTime(x1, y1, x2, y2);
+        }
+        return block.getCollisionRectangle().sweptCircleHitTime(x1, y1, x2 - x1, y2 - y1, radius);
+    }
+
+    private static boolean store(Collidable closest, double time, double x1, double y1, double x2, double y2,
+                                 double radius, CollisionInfo result) {
+        if (closest == null) {
+            result.clear();
+            return false;
+        }
+        double x = x1 + time * (x2 - x1);
+        double y = y1 + time * (y2 - y1);
+        if (radius != 0) {
+            // The circle touches the collidable at the point of the collidable closest to its center
+            x = closest.getCollisionRectangle().closestX(x);
+            y = closest.getCollisionRectangle().closestY(y);
+        }
+        result.set(closest, x, y, time);
+        return true;
     }
 
     /**
-     * Removes the specified collidable object from the collection.
+     * Removes the specified collidable object from the collection, looking for it among all the collidables.
      *
      * @param c the collidable object to remove
      */
     public void removeCollidableFromCollection(Collidable c) {
-        blocks.remove(c);
+        blocks.removeItem(c);
+        grid.remove(c);
+    }
+
+    /**
+     * Removes the collidable with the given handle from the collection, in constant time.
+     * Does nothing if it was already removed.
+     *
+     * @param handle the handle the collidable got when it was added
+     */
+    public void removeCollidable(long handle) {
+        Collidable c = blocks.get(handle);
+        if (c != null) {
+            blocks.remove(handle);
+            grid.remove(c);
+        }
     }
 
     /**
-     * Returns the list of collidable objects in the environment.
+     * Returns the number of collidable objects in the environment.
      *
-     * @return the list of collidable objects
+     * @return the number of collidable objects
      */
-    public List<Collidable> getBlocks() {
-        return blocks;
+    public int size() {
+        return blocks.size();
     }
 }
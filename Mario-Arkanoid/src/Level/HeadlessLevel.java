@@ -0,0 +1,146 @@
+package Level;
+
+import Animations.AllocationMeter;
+import Rendering.FrameWriter;
+import Rendering.ImageDrawSurface;
+import Screens.GameLevel;
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The HeadlessLevel class runs a level of the game without any window and without waiting
+ * between ticks, so levels can be simulated as fast as the machine allows.
+ * The paddle reads the given keyboard sensor, and frames are drawn on the given surface,
+ * which is usually a surface that draws nothing or one that records what is drawn.
+ * With an AllocationMeter, every tick together with its frame, if one is drawn, is measured as a frame.
+ * When the surface is an ImageDrawSurface, every frame drawn can also be saved by a FrameWriter,
+ * to record a run of the level on a machine with no screen.
+ */
+public class HeadlessLevel {
+    private GameLevel level;
+    private DrawSurface surface;
+    private long ticks;
+    private AllocationMeter allocationMeter;
+    private FrameWriter frameWriter;
+
+    /**
+     * Constructs a HeadlessLevel for the given level.
+     *
+     * @param levelInformation      the information about the level to run
+     * @param scoreTrackingListener the listener for tracking the game score
+     * @param keyboardSensor        the keyboard sensor the paddle reads
+     * @param surface               the surface frames are drawn on
+     */
+    public HeadlessLevel(LevelInformation levelInformation, ScoreTrackingListener scoreTrackingListener,
+                         KeyboardSensor keyboardSensor, DrawSurface surface) {
+        this.level = new GameLevel(levelInformation, scoreTrackingListener, keyboardSensor);
+        this.surface = surface;
+    }
+
+    /**
+     * Sets the meter that measures the bytes allocated by every tick of runTicks() and its frame.
+     *
+     * @param allocationMeter the meter, or null to stop measuring
+     */
+    public void setAllocationMeter(AllocationMeter allocationMeter) {
+        this.allocationMeter = allocationMeter;
+    }
+
+    /**
+     * Sets the writer that saves every frame drawn by render() and runTicks().
+     *
+     * @param frameWriter the writer, or null to stop saving frames
+     * @throws IllegalStateException if the surface of the level does not draw into an image
+     */
+    public void setFrameWriter(FrameWriter frameWriter) {
+        if (frameWriter != null && !(surface instanceof ImageDrawSurface)) {
+            throw new IllegalStateException("Frames can only be saved from an ImageDrawSurface");
+        }
+        this.frameWriter = frameWriter;
+    }
+
+    /**
+     * Creates the balls, paddle, blocks and bounds of the level.
+     */
+    public void initialize() {
+        level.initialize();
+    }
+
+    /**
+     * Advances the level by one tick, without drawing it.
+     */
+    public void tick() {
+        level.step();
+        ticks++;
+    }
+
+    /**
+     * Draws the current state of the level on the surface, and saves it if a frame writer is set.
+     *
+     * @throws UncheckedIOException if the frame writer could not save the frame
+     */
+    public void render() {
+        level.render(surface, 1);
+        if (frameWriter != null) {
+            try {
+                frameWriter.write(((ImageDrawSurface) surface).getImage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Advances the level by the given number of ticks, or until it is over.
+     *
+     * @param count        the largest number of ticks to run
+     * @param renderEvery  draw a frame every this many ticks, or 0 to never draw
+     * @return the number of ticks that were run
+     */
+    public int runTicks(int count, int renderEvery) {
+        int done = 0;
+        while (done < count && !level.shouldStop()) {
+            AllocationMeter meter = allocationMeter;
+            long mark = meter == null ? 0 : meter.begin();
+            tick();
+            done++;
+            if (renderEvery > 0 && done % renderEvery == 0) {
+                render();
+            }
+            if (meter != null) {
+                meter.end(mark);
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Indicates whether the level is over, because all its blocks or all its balls are gone.
+     *
+     * @return true if the level is over, false otherwise
+     */
+    public boolean isOver() {
+        return level.shouldStop();
+    }
+
+    /**
+     * Returns the number of ticks run so far.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the level being run.
+     *
+     * @return the level
+     */
+    public GameLevel getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,209 @@
+package Level;
+
+import java.util.Arrays;
+
+/**
+ * The Level.SlotMap class keeps items in the order they were added, and gives every item a handle
+ * that removes it in constant time, without looking for it.
+ * A handle is made of the slot of the item and the generation of that slot. A slot gets a new
+ * generation whenever its item is removed, so the handle of a removed item never matches the item
+ * that takes its slot later, and removing an item twice does nothing.
+ * Generations are 24 bits long, so the highest byte of a handle is always 0, and whoever keeps
+ * several maps may store there which of them a handle comes from.
+ * The items are kept in an array in their order. A removed item leaves a hole in the array, and the
+ * array is only packed once there are more holes than items, so every removal costs constant time
+ * on average, while the items are read one after the other like in a list.
+ * The array is never packed while the items are being iterated, between beginIteration() and
+ * endIteration(), so the positions of the items do not change then.
+ *
+ * @param <T> the type of the items
+ */
+public class SlotMap<T> {
+    /**
+     * A handle that no item ever has.
+     */
+    public static final long NO_HANDLE = 0L;
+    private static final int DEFAULT_CAPACITY = 16;
+    // The slot is kept in the low 32 bits of a handle, and its generation in the 24 bits above them
+    private static final int SLOT_BITS = 32;
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+    private static final int MAX_GENERATION = 0xFFFFFF;
+
+    private Object[] items = new Object[DEFAULT_CAPACITY];
+    // The slot of the item at every position of the items array
+    private int[] itemSlots = new int[DEFAULT_CAPACITY];
+    // The positions of the items array in use, holes included
+    private int end;
+    private int size;
+    // For a slot in use, the position of its item; for a free slot, the next free slot, or -1
+    private int[] positions = new int[DEFAULT_CAPACITY];
+    private int[] generations = new int[DEFAULT_CAPACITY];
+    private int slots;
+    private int freeSlot = -1;
+    private int iterating;
+
+    /**
+     * Adds an item after all the others.
+     *
+     * @param item the item to add, not null
+     * @return the handle of the item
+     */
+    public long add(T item) {
+        if (end == items.length) {
+            if (iterating == 0 && end - size >= size) {
+                pack();
+            } else {
+                items = Arrays.copyOf(items, end * 2);
+                itemSlots = Arrays.copyOf(itemSlots, end * 2);
+            }
+        }
+        int slot = freeSlot;
+        if (slot >= 0) {
+            freeSlot = positions[slot];
+        } else {
+            if (slots == positions.length) {
+                positions = Arrays.copyOf(positions, slots * 2);
+                generations = Arrays.copyOf(generations, slots * 2);
+            }
+            slot = slots++;
+            generations[slot] = 1;
+        }
+        items[end] = item;
+        itemSlots[end] = slot;
+        positions[slot] = end;
+        end++;
+        size++;
+        return ((long) generations[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Removes the item with the given handle. Does nothing if it was already removed.
+     *
+     * @param handle the handle of the item
+     * @return true if the item was removed, false if no item has this handle
+     */
+    public boolean remove(long handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        int slot = (int) (handle & SLOT_MASK);
+        items[positions[slot]] = null;
+        // Generation 0 is skipped, so that no handle is ever NO_HANDLE
+        generations[slot] = generations[slot] == MAX_GENERATION ? 1 : generations[slot] + 1;
+        positions[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+        if (iterating == 0 && end - size > size + DEFAULT_CAPACITY) {
+            pack();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the first occurrence of an item, looking for it among all the items.
+     * It is not an overload of remove(long), so a handle kept as a Long is never taken for an item.
+     *
+     * @param item the item to remove
+     * @return true if the item was removed, false if it is not in the map
+     */
+    public boolean removeItem(Object item) {
+        for (int i = 0; i < end; i++) {
+            if (items[i] != null && items[i].equals(item)) {
+                int slot = itemSlots[i];
+                return remove(((long) generations[slot] << SLOT_BITS) | slot);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indicates whether the item with the given handle is still in the map.
+     *
+     * @param handle the handle of the item
+     * @return true if the item is in the map, false otherwise
+     */
+    public boolean contains(long handle) {
+        long slot = handle & SLOT_MASK;
+        return slot < slots && generations[(int) slot] == (int) (handle >>> SLOT_BITS);
+    }
+
+    /**
+     * Returns the item with the given handle.
+     *
+     * @param handle the handle of the item
+     * @return the item, or null if no item has this handle
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long handle) {
+        if (!contains(handle)) {
+            return null;
+        }
+        return (T) items[positions[(int) (handle & SLOT_MASK)]];
+    }
+
+    /**
+     * Returns the number of items in the map.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the end of the positions in use: the items are at the positions from 0 to end() - 1,
+     * with holes where items were removed.
+     *
+     * @return the end of the positions
+     */
+    public int end() {
+        return end;
+    }
+
+    /**
+     * Returns the item at the given position.
+     *
+     * @param position the position, between 0 and end() - 1
+     * @return the item, or null if the item there was removed
+     */
+    @SuppressWarnings("unchecked")
+    public T at(int position) {
+        return (T) items[position];
+    }
+
+    /**
+     * Starts iterating the items: until the matching endIteration(), the positions of the items
+     * do not change. Items added meanwhile come after end(), and removed items leave holes.
+     */
+    public void beginIteration() {
+        iterating++;
+    }
+
+    /**
+     * Ends an iteration started by beginIteration(), and packs the items if the last iteration is over
+     * and there are too many holes.
+     */
+    public void endIteration() {
+        if (--iterating == 0 && end - size > size + DEFAULT_CAPACITY) {
+            pack();
+        }
+    }
+
+    /**
+     * Moves the items to the beginning of the array, keeping their order, and fills in their new positions.
+     */
+    private void pack() {
+        int out = 0;
+        for (int i = 0; i < end; i++) {
+            if (items[i] == null) {
+                continue;
+            }
+            items[out] = items[i];
+            itemSlots[out] = itemSlots[i];
+            positions[itemSlots[out]] = out;
+            out++;
+        }
+        Arrays.fill(items, out, end, null);
+        end = out;
+    }
+}
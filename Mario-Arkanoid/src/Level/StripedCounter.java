@@ -0,0 +1,91 @@
+package Level;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Level.StripedCounter class is a counter that many threads may change at once, without locks
+ * and without losing changes, like a score shared by games played on several threads.
+ * The count is spread over a LongAdder, whose threads each add to a cell of their own when they
+ * would otherwise contend, and reading the count sums the cells.
+ * Since changes come from any thread, nobody is told of them as they happen: publish() sums the cells
+ * once, stores the count in the Level.CounterSnapshot of the counter, and tells the listeners of all
+ * the changes since the last time, on the thread that calls it. Readers that look at the count often,
+ * like a Sprites.Hud, read the snapshot instead of summing the cells every time.
+ * The int count that Level.Counter keeps is the count last published, changed by publish() only.
+ */
+public class StripedCounter extends Counter {
+    private final LongAdder count = new LongAdder();
+    private final CounterSnapshot snapshot;
+
+    /**
+     * Constructs a Level.StripedCounter with the specified initial count, which is also published.
+     *
+     * @param count the initial count
+     */
+    public StripedCounter(int count) {
+        super(count);
+        this.count.add(count);
+        this.snapshot = new CounterSnapshot(count);
+    }
+
+    /**
+     * Adds a number to the current count. May be called by any thread.
+     *
+     * @param number the number to add
+     */
+    @Override
+    public void increase(int number) {
+        count.add(number);
+    }
+
+    /**
+     * Subtracts a number from the current count. May be called by any thread.
+     *
+     * @param number the number to subtract
+     */
+    @Override
+    public void decrease(int number) {
+        count.add(-number);
+    }
+
+    /**
+     * Returns the current count, counting every change that was over when it is called.
+     *
+     * @return the current count
+     */
+    @Override
+    public int getValue() {
+        return count.intValue();
+    }
+
+    /**
+     * Returns the count as it was last published, from the snapshot of the counter.
+     *
+     * @return the published count
+     */
+    @Override
+    public int getPublishedValue() {
+        return snapshot.getValue();
+    }
+
+    /**
+     * Returns the snapshot that holds the count as it was last published.
+     *
+     * @return the snapshot of the counter
+     */
+    public CounterSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the current count to the snapshot, and tells the listeners that the count changed
+     * since the last time it was published, if it did. The listeners are called on the thread that
+     * calls this method.
+     */
+    public synchronized void publish() {
+        int newValue = getValue();
+        snapshot.set(newValue);
+        // The count kept by Level.Counter is the count last published, and changing it tells the listeners
+        super.increase(newValue - super.getValue());
+    }
+}
@@ -4,12 +4,15 @@ import Level.Counter;
 import Screens.GameLevel;
 import Sprites.Ball;
 import Sprites.Block;
+import Sprites.Velocity;
 
 /**
  * A ListenersAndNotifier.BlockRemover is in charge of removing blocks from the game, as well as keeping count
  * of the number of blocks that remain.
  */
 public class BlockRemover implements HitListener {
+    // The velocity of the balls released by special blocks
+    private static final Velocity SPAWN_VELOCITY = Velocity.fromAngleAndSpeed(330, 5);
     private GameLevel game;
     private Counter remainingBlocks;
 
@@ -42,11 +45,9 @@ public class BlockRemover implements HitListener {
             double x = beingHit.getCollisionRectangle().getUpperLeft().getX();
             double y = beingHit.getCollisionRectangle().getUpperLeft().getY();
 
-            Sprites.Ball ball = new Sprites.Ball(new Geometry.Point(x + 20, y + 20), 4, beingHit.getColor(),
-            this.game.getEnvironment());
-            ball.setVelocity(Sprites.Velocity.fromAngleAndSpeed(330, 5));
-            ball.addToGame(this.game);
-            ball.addHitListener(this.game.getBallRemover());
+            // The new ball gets its object now, with the block, rather than on its first hit in the middle of the game
+            this.game.getBallSystem().spawnBall(x + 20, y + 20, 4, beingHit.getColor(),
+                    SPAWN_VELOCITY.getDx(), SPAWN_VELOCITY.getDy());
             this.game.setRemainingBalls(1);
         }
         remainingBlocks.increase(1);
@@ -0,0 +1,123 @@
+package ListenersAndNotifier;
+
+import Sprites.Ball;
+import Sprites.Block;
+
+import java.util.Arrays;
+
+/**
+ * The ListenersAndNotifier.HitListenerRegistry class keeps the listeners of a HitNotifier and notifies them
+ * of hit events, without allocating anything for a hit.
+ * The listeners are kept in an array, and a hit notifies the listeners that were registered when it began,
+ * even if listeners are added or removed meanwhile, like the removers that remove themselves.
+ * Listeners added during a hit are put after the others, so they are only notified of the next hits.
+ * Listeners removed during a hit are only taken out of the array once the hit is over, but a hit that
+ * a listener causes meanwhile, which begins after they were removed, does not notify them.
+ */
+public class HitListenerRegistry implements HitNotifier {
+    private static final HitListener[] NONE = new HitListener[0];
+    private HitListener[] listeners = NONE;
+    private int size;
+    // How many hits are being notified right now: a listener may cause another hit
+    private int notifying;
+    private HitListener[] removed = NONE;
+    private int removedCount;
+
+    /**
+     * Adds a listener to hit events.
+     *
+     * @param hl the listener to add
+     */
+    @Override
+    public void addHitListener(HitListener hl) {
+        if (size == listeners.length) {
+            listeners = Arrays.copyOf(listeners, Math.max(2, size * 2));
+        }
+        listeners[size++] = hl;
+    }
+
+    /**
+     * Removes a listener to hit events. During a hit, it is only taken out once the hit is over.
+     *
+     * @param hl the listener to remove
+     */
+    @Override
+    public void removeHitListener(HitListener hl) {
+        if (notifying == 0) {
+            removeNow(hl);
+            return;
+        }
+        if (removedCount == removed.length) {
+            removed = Arrays.copyOf(removed, Math.max(2, removedCount * 2));
+        }
+        removed[removedCount++] = hl;
+    }
+
+    /**
+     * Notifies all the listeners of a hit event.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     */
+    public void notifyHit(Block beingHit, Ball hitter) {
+        int count = size;
+        // The listeners removed during the hits this one is nested in are still in the array
+        int removedBefore = removedCount;
+        notifying++;
+        try {
+            for (int i = 0; i < count; i++) {
+                if (removedBefore == 0 || !isRemoved(listeners[i], removedBefore)) {
+                    listeners[i].hitEvent(beingHit, hitter);
+                }
+            }
+        } finally {
+            if (--notifying == 0 && removedCount > 0) {
+                for (int i = 0; i < removedCount; i++) {
+                    removeNow(removed[i]);
+                    removed[i] = null;
+                }
+                removedCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of listeners, counting those removed during the hit being notified.
+     *
+     * @return the number of listeners
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a listener is among the first removed listeners that are still in the array.
+     *
+     * @param hl    the listener to look for
+     * @param count the number of removed listeners to look at
+     * @return true if the listener was removed, false otherwise
+     */
+    private boolean isRemoved(HitListener hl, int count) {
+        for (int i = 0; i < count; i++) {
+            if (removed[i] == hl) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the first occurrence of a listener out of the array, keeping the others in their order.
+     *
+     * @param hl the listener to remove
+     */
+    private void removeNow(HitListener hl) {
+        for (int i = 0; i < size; i++) {
+            if (listeners[i] == hl) {
+                System.arraycopy(listeners, i + 1, listeners, i, size - i - 1);
+                listeners[--size] = null;
+                return;
+            }
+        }
+    }
+}
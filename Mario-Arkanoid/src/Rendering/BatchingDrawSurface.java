@@ -0,0 +1,358 @@
+package Rendering;
+
+import biuoop.AlphaChannelNotSupportedException;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The BatchingDrawSurface class records the drawing of a frame, and sends it to the real surface
+ * grouped by color and kind of drawing, so the color is changed as few times as possible.
+ * A drawing only joins an earlier group of the same color and kind if nothing drawn since that group
+ * touches the same part of the screen, so whatever is drawn over something still ends up above it,
+ * and the frame looks exactly as if it was drawn call by call.
+ * The screen is split into square tiles, and each tile remembers the last group that drew on it,
+ * so checking a drawing only costs a look at the few tiles it covers.
+ * The commands are kept in primitive arrays that are reused from frame to frame.
+ */
+public class BatchingDrawSurface implements DrawSurface {
+    private static final int LINE = 0;
+    private static final int DRAW_OVAL = 1;
+    private static final int FILL_OVAL = 2;
+    private static final int DRAW_RECTANGLE = 3;
+    private static final int FILL_RECTANGLE = 4;
+    private static final int IMAGE = 5;
+    private static final int DRAW_CIRCLE = 6;
+    private static final int FILL_CIRCLE = 7;
+    private static final int TEXT = 8;
+    private static final int DRAW_POLYGON = 9;
+    private static final int FILL_POLYGON = 10;
+    // Tiles of 16 by 16 pixels: about the size of a ball, and 1,900 tiles for the whole window
+    private static final int TILE_SHIFT = 4;
+    private static final int INITIAL_COMMANDS = 256;
+    // Marks the key of drawings made before any color was set
+    private static final long NO_COLOR = 1L << 32;
+
+    private int width;
+    private int height;
+    private int columns;
+    private int rows;
+    private int[] tileLast;
+    private Color color;
+
+    private int commands;
+    private int[] op = new int[INITIAL_COMMANDS];
+    private int[] a = new int[INITIAL_COMMANDS];
+    private int[] b = new int[INITIAL_COMMANDS];
+    private int[] c = new int[INITIAL_COMMANDS];
+    private int[] d = new int[INITIAL_COMMANDS];
+    private Object[] object = new Object[INITIAL_COMMANDS];
+    private int[] next = new int[INITIAL_COMMANDS];
+
+    private int batches;
+    private Color[] batchColor = new Color[INITIAL_COMMANDS];
+    private int[] batchHead = new int[INITIAL_COMMANDS];
+    private int[] batchTail = new int[INITIAL_COMMANDS];
+
+    private int keys;
+    private long[] key = new long[INITIAL_COMMANDS];
+    private int[] keyBatch = new int[INITIAL_COMMANDS];
+
+    private int colorChanges;
+
+    /**
+     * Constructs an empty BatchingDrawSurface for a surface of the given size.
+     *
+     * @param width  the width of the surface
+     * @param height the height of the surface
+     */
+    public BatchingDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columns = Math.max(1, (width >> TILE_SHIFT) + 1);
+        this.rows = Math.max(1, (height >> TILE_SHIFT) + 1);
+        this.tileLast = new int[columns * rows];
+        Arrays.fill(tileLast, -1);
+    }
+
+    /**
+     * Sends everything drawn since the last flush to the given surface, group after group, and forgets it.
+     *
+     * @param target the surface to draw on
+     */
+    public void flush(DrawSurface target) {
+        Color current = null;
+        colorChanges = 0;
+        for (int i = 0; i < batches; i++) {
+            Color batch = batchColor[i];
+            if (batch != null && !batch.equals(current)) {
+                target.setColor(batch);
+                current = batch;
+                colorChanges++;
+            }
+            for (int j = batchHead[i]; j != -1; j = next[j]) {
+                replay(target, j);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Forgets everything drawn since the last flush, without drawing it.
+     */
+    public void clear() {
+        Arrays.fill(object, 0, commands, null);
+        Arrays.fill(batchColor, 0, batches, null);
+        Arrays.fill(tileLast, -1);
+        commands = 0;
+        batches = 0;
+        keys = 0;
+        color = null;
+    }
+
+    /**
+     * Returns the number of times the color was changed by the last flush.
+     *
+     * @return the number of color changes
+     */
+    public int getColorChanges() {
+        return colorChanges;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void setColor(Color newColor) {
+        if (newColor.getAlpha() != 255) {
+            throw new AlphaChannelNotSupportedException("Colors with an alpha channel are not supported");
+        }
+        this.color = newColor;
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        record(LINE, x1, y1, x2, y2, null, Math.min(x1, x2), Math.min(y1, y2),
+                Math.max(x1, x2) + 1, Math.max(y1, y2) + 1);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        record(DRAW_OVAL, x, y, w, h, null, x, y, x + w + 1, y + h + 1);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        record(FILL_OVAL, x, y, w, h, null, x, y, x + w, y + h);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        record(DRAW_RECTANGLE, x, y, w, h, null, x, y, x + w + 1, y + h + 1);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        record(FILL_RECTANGLE, x, y, w, h, null, x, y, x + w, y + h);
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image image) {
+        int w = image.getWidth(null);
+        int h = image.getHeight(null);
+        if (w < 0 || h < 0) {
+            // The size is not known yet: the image may cover the whole surface
+            record(IMAGE, x, y, 0, 0, image, 0, 0, width, height);
+        } else {
+            record(IMAGE, x, y, 0, 0, image, x, y, x + w, y + h);
+        }
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        record(DRAW_CIRCLE, x, y, r, 0, null, x - r, y - r, x + r + 1, y + r + 1);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        record(FILL_CIRCLE, x, y, r, 0, null, x - r, y - r, x + r, y + r);
+    }
+
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        // No glyph is wider than the font size, reaches higher than twice of it or lower than it
+        record(TEXT, x, y, fontSize, 0, s, x - fontSize, y - 2 * fontSize,
+                x + fontSize * (s.length() + 1), y + fontSize);
+    }
+
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        Polygon copy = new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints);
+        Rectangle bounds = copy.getBounds();
+        record(DRAW_POLYGON, 0, 0, 0, 0, copy, bounds.x, bounds.y,
+                bounds.x + bounds.width + 1, bounds.y + bounds.height + 1);
+    }
+
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        Polygon copy = new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints);
+        Rectangle bounds = copy.getBounds();
+        record(FILL_POLYGON, 0, 0, 0, 0, copy, bounds.x, bounds.y,
+                bounds.x + bounds.width + 1, bounds.y + bounds.height + 1);
+    }
+
+    /**
+     * Records a command, in the last group of the same color and kind if it may be drawn there,
+     * or in a new group at the end otherwise.
+     *
+     * @param kind   the kind of the command
+     * @param arg1   the first argument of the command
+     * @param arg2   the second argument of the command
+     * @param arg3   the third argument of the command
+     * @param arg4   the fourth argument of the command
+     * @param target the text, image or polygon of the command, or null
+     * @param x1     the left side of the pixels the command may touch
+     * @param y1     the top side of the pixels the command may touch
+     * @param x2     the right side of the pixels the command may touch, not included
+     * @param y2     the bottom side of the pixels the command may touch, not included
+     */
+    private void record(int kind, int arg1, int arg2, int arg3, int arg4, Object target,
+                        int x1, int y1, int x2, int y2) {
+        if (commands == op.length) {
+            growCommands();
+        }
+        int command = commands++;
+        op[command] = kind;
+        a[command] = arg1;
+        b[command] = arg2;
+        c[command] = arg3;
+        d[command] = arg4;
+        object[command] = target;
+        next[command] = -1;
+
+        int column1 = tile(x1, columns);
+        int row1 = tile(y1, rows);
+        int column2 = tile(x2 - 1, columns);
+        int row2 = tile(y2 - 1, rows);
+        long commandKey = ((long) kind << 33) | (color == null ? NO_COLOR : color.getRGB() & 0xffffffffL);
+        int k = findKey(commandKey);
+        int batch = k < 0 ? -1 : keyBatch[k];
+        if (batch >= 0 && lastOnTiles(column1, row1, column2, row2) <= batch) {
+            next[batchTail[batch]] = command;
+            batchTail[batch] = command;
+        } else {
+            if (batches == batchHead.length) {
+                growBatches();
+            }
+            batch = batches++;
+            batchColor[batch] = color;
+            batchHead[batch] = command;
+            batchTail[batch] = command;
+            if (k < 0) {
+                if (keys == key.length) {
+                    key = Arrays.copyOf(key, keys * 2);
+                    keyBatch = Arrays.copyOf(keyBatch, keys * 2);
+                }
+                k = keys++;
+                key[k] = commandKey;
+            }
+            keyBatch[k] = batch;
+        }
+        for (int row = row1; row <= row2; row++) {
+            for (int column = column1; column <= column2; column++) {
+                int tile = row * columns + column;
+                tileLast[tile] = Math.max(tileLast[tile], batch);
+            }
+        }
+    }
+
+    private int tile(int coordinate, int count) {
+        return Math.min(Math.max(coordinate, 0) >> TILE_SHIFT, count - 1);
+    }
+
+    private int lastOnTiles(int column1, int row1, int column2, int row2) {
+        int last = -1;
+        for (int row = row1; row <= row2; row++) {
+            for (int column = column1; column <= column2; column++) {
+                last = Math.max(last, tileLast[row * columns + column]);
+            }
+        }
+        return last;
+    }
+
+    private int findKey(long commandKey) {
+        for (int i = keys - 1; i >= 0; i--) {
+            if (key[i] == commandKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void replay(DrawSurface target, int i) {
+        switch (op[i]) {
+            case LINE:
+                target.drawLine(a[i], b[i], c[i], d[i]);
+                break;
+            case DRAW_OVAL:
+                target.drawOval(a[i], b[i], c[i], d[i]);
+                break;
+            case FILL_OVAL:
+                target.fillOval(a[i], b[i], c[i], d[i]);
+                break;
+            case DRAW_RECTANGLE:
+                target.drawRectangle(a[i], b[i], c[i], d[i]);
+                break;
+            case FILL_RECTANGLE:
+                target.fillRectangle(a[i], b[i], c[i], d[i]);
+                break;
+            case IMAGE:
+                target.drawImage(a[i], b[i], (Image) object[i]);
+                break;
+            case DRAW_CIRCLE:
+                target.drawCircle(a[i], b[i], c[i]);
+                break;
+            case FILL_CIRCLE:
+                target.fillCircle(a[i], b[i], c[i]);
+                break;
+            case TEXT:
+                target.drawText(a[i], b[i], (String) object[i], c[i]);
+                break;
+            case DRAW_POLYGON:
+                target.drawPolygon((Polygon) object[i]);
+                break;
+            default:
+                target.fillPolygon((Polygon) object[i]);
+                break;
+        }
+    }
+
+    private void growCommands() {
+        int capacity = op.length * 2;
+        op = Arrays.copyOf(op, capacity);
+        a = Arrays.copyOf(a, capacity);
+        b = Arrays.copyOf(b, capacity);
+        c = Arrays.copyOf(c, capacity);
+        d = Arrays.copyOf(d, capacity);
+        object = Arrays.copyOf(object, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    private void growBatches() {
+        int capacity = batchHead.length * 2;
+        batchColor = Arrays.copyOf(batchColor, capacity);
+        batchHead = Arrays.copyOf(batchHead, capacity);
+        batchTail = Arrays.copyOf(batchTail, capacity);
+    }
+}
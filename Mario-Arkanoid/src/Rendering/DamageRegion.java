@@ -0,0 +1,168 @@
+package Rendering;
+
+/**
+ * The DamageRegion class collects the parts of the screen that changed since the last frame.
+ * Sprites report the bounds they changed with add(), and the renderer only draws those parts again.
+ * Touching or overlapping rectangles are merged as they are added. When there are too many
+ * rectangles, or they cover most of the screen, the whole screen is marked as changed instead.
+ */
+public class DamageRegion {
+    private static final int MAX_RECTANGLES = 32;
+    // Past this share of the screen, drawing everything is cheaper than clipping
+    private static final double FULL_SHARE = 0.5;
+
+    private int width;
+    private int height;
+    private int[] left = new int[MAX_RECTANGLES];
+    private int[] top = new int[MAX_RECTANGLES];
+    private int[] right = new int[MAX_RECTANGLES];
+    private int[] bottom = new int[MAX_RECTANGLES];
+    private int count;
+    private long area;
+    private boolean full;
+
+    /**
+     * Constructs an empty DamageRegion for a screen of the given size.
+     *
+     * @param width  the width of the screen
+     * @param height the height of the screen
+     */
+    public DamageRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Marks a rectangle of the screen as changed. The rectangle is grown to whole pixels,
+     * and by one more pixel on every side for outlines and rounding.
+     *
+     * @param x the x-coordinate of the upper-left corner of the rectangle
+     * @param y the y-coordinate of the upper-left corner of the rectangle
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     */
+    public void add(double x, double y, double w, double h) {
+        if (full) {
+            return;
+        }
+        int x1 = Math.max(0, (int) Math.floor(x) - 1);
+        int y1 = Math.max(0, (int) Math.floor(y) - 1);
+        int x2 = Math.min(width, (int) Math.ceil(x + w) + 2);
+        int y2 = Math.min(height, (int) Math.ceil(y + h) + 2);
+        if (x1 >= x2 || y1 >= y2) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (x1 <= right[i] && x2 >= left[i] && y1 <= bottom[i] && y2 >= top[i]) {
+                area -= (long) (right[i] - left[i]) * (bottom[i] - top[i]);
+                left[i] = Math.min(left[i], x1);
+                top[i] = Math.min(top[i], y1);
+                right[i] = Math.max(right[i], x2);
+                bottom[i] = Math.max(bottom[i], y2);
+                area += (long) (right[i] - left[i]) * (bottom[i] - top[i]);
+                checkFull();
+                return;
+            }
+        }
+        if (count == MAX_RECTANGLES) {
+            full = true;
+            return;
+        }
+        left[count] = x1;
+        top[count] = y1;
+        right[count] = x2;
+        bottom[count] = y2;
+        count++;
+        area += (long) (x2 - x1) * (y2 - y1);
+        checkFull();
+    }
+
+    /**
+     * Marks the whole screen as changed.
+     */
+    public void addAll() {
+        full = true;
+    }
+
+    /**
+     * Checks whether the whole screen must be drawn again.
+     *
+     * @return true if the whole screen changed, false otherwise
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Checks whether nothing changed.
+     *
+     * @return true if no part of the screen changed, false otherwise
+     */
+    public boolean isEmpty() {
+        return !full && count == 0;
+    }
+
+    /**
+     * Returns the number of changed rectangles.
+     *
+     * @return the number of rectangles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the x-coordinate of the left side of a changed rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the x-coordinate of its left side
+     */
+    public int getLeft(int i) {
+        return left[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the top side of a changed rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the y-coordinate of its top side
+     */
+    public int getTop(int i) {
+        return top[i];
+    }
+
+    /**
+     * Returns the width of a changed rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the width of the rectangle
+     */
+    public int getWidth(int i) {
+        return right[i] - left[i];
+    }
+
+    /**
+     * Returns the height of a changed rectangle.
+     *
+     * @param i the index of the rectangle
+     * @return the height of the rectangle
+     */
+    public int getHeight(int i) {
+        return bottom[i] - top[i];
+    }
+
+    /**
+     * Forgets all the changes, after they were drawn.
+     */
+    public void clear() {
+        count = 0;
+        area = 0;
+        full = false;
+    }
+
+    private void checkFull() {
+        if (area > FULL_SHARE * width * height) {
+            full = true;
+        }
+    }
+}
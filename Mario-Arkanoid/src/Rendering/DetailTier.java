@@ -0,0 +1,42 @@
+package Rendering;
+
+/**
+ * The DetailTier enum lists how much detail sprites draw, from the full look of the game
+ * down to the plainest drawing that still shows where everything is.
+ * Frames that take longer than their budget move the game down a tier, and fast frames move it back up.
+ */
+public enum DetailTier {
+    /**
+     * Everything is drawn as designed.
+     */
+    FULL,
+    /**
+     * Balls are plain circles, blocks that are not copied from an image are plain rectangles,
+     * and backgrounds leave out their decorations and stop moving.
+     */
+    REDUCED,
+    /**
+     * Like REDUCED, and backgrounds draw nothing that moves.
+     */
+    MINIMAL;
+
+    private static final DetailTier[] TIERS = values();
+
+    /**
+     * Returns the tier with less detail than this one, or this one if it is the lowest.
+     *
+     * @return the lower tier
+     */
+    public DetailTier lower() {
+        return ordinal() == TIERS.length - 1 ? this : TIERS[ordinal() + 1];
+    }
+
+    /**
+     * Returns the tier with more detail than this one, or this one if it is the highest.
+     *
+     * @return the higher tier
+     */
+    public DetailTier higher() {
+        return ordinal() == 0 ? this : TIERS[ordinal() - 1];
+    }
+}
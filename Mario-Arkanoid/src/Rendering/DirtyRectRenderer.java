@@ -0,0 +1,71 @@
+package Rendering;
+
+import biuoop.DrawSurface;
+
+/**
+ * The DirtyRectRenderer class draws a scene into a back buffer that is kept from frame to frame,
+ * and only draws again the parts of it that changed, as reported in its DamageRegion.
+ * The scene is drawn once for every changed rectangle, clipped to it, so pixels outside the changed
+ * parts are never filled, and the back buffer is then copied to the screen with a single drawImage call.
+ * The clip is always a plain rectangle: Java2D fills shapes through another, slightly different,
+ * path under other clips, which would leave the changed parts looking unlike the rest of the frame.
+ */
+public class DirtyRectRenderer {
+    private int width;
+    private int height;
+    private DamageRegion damage;
+    private ImageDrawSurface back;
+
+    /**
+     * Constructs a DirtyRectRenderer for a screen of the given size.
+     *
+     * @param width  the width of the screen
+     * @param height the height of the screen
+     */
+    public DirtyRectRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.damage = new DamageRegion(width, height);
+    }
+
+    /**
+     * Returns the region where the changes of the scene are reported.
+     *
+     * @return the damage region of the renderer
+     */
+    public DamageRegion getDamage() {
+        return damage;
+    }
+
+    /**
+     * Makes the next frame draw the whole scene again.
+     */
+    public void invalidate() {
+        damage.addAll();
+    }
+
+    /**
+     * Draws the changed parts of the scene into the back buffer, and copies it to the target.
+     *
+     * @param target the surface to show the frame on
+     * @param scene  draws the whole scene
+     */
+    public void render(DrawSurface target, LayerCache.Painter scene) {
+        if (back == null) {
+            back = new ImageDrawSurface(width, height, false);
+            damage.addAll();
+        }
+        if (damage.isFull()) {
+            scene.paint(back);
+        } else {
+            for (int i = 0; i < damage.size(); i++) {
+                back.getGraphics().setClip(damage.getLeft(i), damage.getTop(i),
+                        damage.getWidth(i), damage.getHeight(i));
+                scene.paint(back);
+            }
+            back.getGraphics().setClip(null);
+        }
+        damage.clear();
+        target.drawImage(0, 0, back.getImage());
+    }
+}
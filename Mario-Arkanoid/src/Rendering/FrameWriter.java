@@ -0,0 +1,27 @@
+package Rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The FrameWriter interface is implemented by everything that saves the frames of the game, one after the other.
+ * The frames are usually drawn on an ImageDrawSurface, so the game can be recorded without any window.
+ */
+public interface FrameWriter extends Closeable {
+    /**
+     * Saves the given frame after the frames written before it.
+     * The image is not kept, so the same image may be drawn again and written as the next frame.
+     *
+     * @param frame the image of the frame
+     * @throws IOException if the frame could not be saved
+     */
+    void write(BufferedImage frame) throws IOException;
+
+    /**
+     * Returns the number of frames written so far.
+     *
+     * @return the number of frames
+     */
+    int getFrames();
+}
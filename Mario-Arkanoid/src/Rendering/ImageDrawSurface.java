@@ -0,0 +1,141 @@
+package Rendering;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+/**
+ * The ImageDrawSurface class is a DrawSurface that draws into an image instead of a window.
+ * Every call is turned into the same Graphics call the window of the game uses,
+ * so an image drawn here looks exactly like the same drawing on the screen.
+ */
+public class ImageDrawSurface implements DrawSurface {
+    private BufferedImage image;
+    private Graphics2D g;
+
+    /**
+     * Constructs an ImageDrawSurface that draws into a new image of the given size.
+     *
+     * @param width       the width of the image
+     * @param height      the height of the image
+     * @param transparent true for an image that starts fully transparent, false for an opaque image
+     */
+    public ImageDrawSurface(int width, int height, boolean transparent) {
+        this(new BufferedImage(width, height,
+                transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Constructs an ImageDrawSurface that draws into the given image.
+     *
+     * @param image the image to draw into
+     */
+    public ImageDrawSurface(BufferedImage image) {
+        this.image = image;
+        this.g = image.createGraphics();
+    }
+
+    /**
+     * Returns the image this surface draws into.
+     *
+     * @return the image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the graphics this surface draws with.
+     *
+     * @return the graphics of the image
+     */
+    public Graphics2D getGraphics() {
+        return g;
+    }
+
+    /**
+     * Releases the graphics of the surface. The surface cannot be drawn on afterwards.
+     */
+    public void dispose() {
+        g.dispose();
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public void setColor(Color color) {
+        g.setColor(color);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        g.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        g.drawOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+        g.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        g.drawRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        g.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        g.drawImage(img, x, y, null);
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        drawOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        fillOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+        Font font = g.getFont();
+        if (font.getSize() != fontSize) {
+            g.setFont(new Font(font.getFontName(), font.getStyle(), fontSize));
+        }
+        g.drawString(text, x, y);
+    }
+
+    @Override
+    public void drawPolygon(Polygon polygon) {
+        g.drawPolygon(polygon);
+    }
+
+    @Override
+    public void fillPolygon(Polygon polygon) {
+        g.fillPolygon(polygon);
+    }
+}
@@ -0,0 +1,147 @@
+package Rendering;
+
+import biuoop.DrawSurface;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * The LayerCache class keeps a layer of drawing that rarely changes as a ready image.
+ * The layer is drawn once, the first time it is needed, and every frame after that only
+ * copies the image to the surface with a single drawImage call.
+ * The parts of the layer that changed are reported with invalidate(), and only those parts are drawn
+ * again, into the same image, the next time it is needed: the layer is drawn once for every changed
+ * rectangle, clipped to it, like DirtyRectRenderer does for the whole scene.
+ * When frames that copy the image may still be shown by another thread, the cache is shared:
+ * the changed parts are then drawn into a copy of the image, so an image once handed out never changes.
+ */
+public class LayerCache {
+    private int width;
+    private int height;
+    private boolean transparent;
+    private Painter painter;
+    private DamageRegion damage;
+    private ImageDrawSurface surface;
+    private boolean shared;
+
+    /**
+     * Constructs a LayerCache for a layer of the given size.
+     *
+     * @param width       the width of the layer
+     * @param height      the height of the layer
+     * @param transparent true if parts of the layer are left undrawn and must let what is below show,
+     *                    false if the layer covers its whole area
+     * @param painter     draws the layer
+     */
+    public LayerCache(int width, int height, boolean transparent, Painter painter) {
+        this.width = width;
+        this.height = height;
+        this.transparent = transparent;
+        this.painter = painter;
+        this.damage = new DamageRegion(width, height);
+    }
+
+    /**
+     * Chooses whether the images of the layer may still be read by another thread after they are handed out.
+     * A shared cache draws every change into a new image, which costs a copy of the whole image per change.
+     *
+     * @param shared true if handed out images must never change, false to draw changes into the same image
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Draws the layer on the given surface, drawing its changed parts into the cache first if needed.
+     *
+     * @param d the surface to draw on
+     */
+    public void drawOn(DrawSurface d) {
+        d.drawImage(0, 0, getImage());
+    }
+
+    /**
+     * Returns the image of the layer, drawing its changed parts first if needed.
+     *
+     * @return the image of the layer
+     */
+    public BufferedImage getImage() {
+        if (surface == null) {
+            surface = new ImageDrawSurface(width, height, transparent);
+            damage.addAll();
+        } else if (damage.isEmpty()) {
+            return surface.getImage();
+        } else if (shared) {
+            BufferedImage old = surface.getImage();
+            surface.dispose();
+            surface = new ImageDrawSurface(width, height, transparent);
+            if (!damage.isFull()) {
+                old.copyData(surface.getImage().getRaster());
+            }
+        }
+        if (damage.isFull()) {
+            repaint(0, 0, width, height);
+        } else {
+            for (int i = 0; i < damage.size(); i++) {
+                repaint(damage.getLeft(i), damage.getTop(i), damage.getWidth(i), damage.getHeight(i));
+            }
+        }
+        surface.getGraphics().setClip(null);
+        damage.clear();
+        return surface.getImage();
+    }
+
+    /**
+     * Makes the whole layer be drawn again the next time it is needed.
+     */
+    public void invalidate() {
+        damage.addAll();
+    }
+
+    /**
+     * Makes a rectangle of the layer be drawn again the next time it is needed.
+     *
+     * @param x the x-coordinate of the upper-left corner of the rectangle
+     * @param y the y-coordinate of the upper-left corner of the rectangle
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     */
+    public void invalidate(double x, double y, double w, double h) {
+        damage.add(x, y, w, h);
+    }
+
+    /**
+     * Draws a rectangle of the layer again, clipped to it, clearing it first if the layer is transparent.
+     *
+     * @param x the left side of the rectangle
+     * @param y the top of the rectangle
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     */
+    private void repaint(int x, int y, int w, int h) {
+        Graphics2D g = surface.getGraphics();
+        g.setClip(x, y, w, h);
+        if (transparent) {
+            Composite composite = g.getComposite();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(x, y, w, h);
+            g.setComposite(composite);
+        }
+        painter.paint(surface);
+    }
+
+    /**
+     * Draws a layer.
+     */
+    public interface Painter {
+
+        /**
+         * Draws the layer on the given surface.
+         *
+         * @param d the surface to draw on
+         */
+        void paint(DrawSurface d);
+    }
+}
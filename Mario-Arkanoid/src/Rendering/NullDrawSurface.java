@@ -0,0 +1,85 @@
+package Rendering;
+
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.awt.Polygon;
+
+/**
+ * The NullDrawSurface class is a DrawSurface that draws nothing.
+ * It lets animations run their drawing code where there is no window to draw on.
+ */
+public class NullDrawSurface implements DrawSurface {
+    private int width;
+    private int height;
+
+    /**
+     * Constructs a NullDrawSurface of the given size.
+     *
+     * @param width  the width reported by the surface
+     * @param height the height reported by the surface
+     */
+    public NullDrawSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void setColor(Color color) {
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void fillOval(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image image) {
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+    }
+
+    @Override
+    public void drawText(int x, int y, String text, int fontSize) {
+    }
+
+    @Override
+    public void drawPolygon(Polygon polygon) {
+    }
+
+    @Override
+    public void fillPolygon(Polygon polygon) {
+    }
+}
@@ -0,0 +1,92 @@
+package Rendering;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The PngSequenceWriter class saves every frame as a PNG file of its own in a directory,
+ * named by a prefix and the number of the frame: frame-000000.png, frame-000001.png and so on.
+ * A frame is encoded in memory into a buffer that is reused from frame to frame,
+ * and then written to its file through a channel in a single write.
+ */
+public class PngSequenceWriter implements FrameWriter {
+    private Path directory;
+    private String prefix;
+    private ImageWriter encoder;
+    private Encoded encoded = new Encoded();
+    private int frames;
+
+    /**
+     * Constructs a PngSequenceWriter that saves the frames into the given directory, creating it if needed.
+     *
+     * @param directory the directory to save the frames in
+     * @param prefix    the start of the name of every file, before the number of the frame
+     * @throws IOException if the directory could not be created
+     */
+    public PngSequenceWriter(Path directory, String prefix) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.encoder = ImageIO.getImageWritersByFormatName("png").next();
+    }
+
+    /**
+     * Returns the file the frame of the given number is saved in.
+     *
+     * @param frame the number of the frame, starting at 0
+     * @return the path of the file of the frame
+     */
+    public Path getFile(int frame) {
+        return directory.resolve(String.format("%s%06d.png", prefix, frame));
+    }
+
+    @Override
+    public void write(BufferedImage frame) throws IOException {
+        encoded.reset();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(encoded)) {
+            encoder.setOutput(stream);
+            encoder.write(frame);
+        } finally {
+            encoder.setOutput(null);
+        }
+        try (FileChannel channel = FileChannel.open(getFile(frames), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = encoded.toByteBuffer();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        frames++;
+    }
+
+    @Override
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Releases the PNG encoder. No frame can be written afterwards.
+     */
+    @Override
+    public void close() {
+        encoder.dispose();
+    }
+
+    /**
+     * A stream into a growing array, whose content can be read without copying it.
+     */
+    private static class Encoded extends ByteArrayOutputStream {
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
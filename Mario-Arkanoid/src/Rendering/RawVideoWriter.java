@@ -0,0 +1,127 @@
+package Rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The RawVideoWriter class saves all the frames into a single file of uncompressed video.
+ * Every frame is stored as its rows from top to bottom, and every pixel as three bytes of red, green
+ * and blue, with no header at all, so the file can be read by any tool that knows the size of the frames,
+ * for example: ffmpeg -f rawvideo -pixel_format rgb24 -video_size 800x600 -framerate 60 -i game.rgb
+ * The pixels go through a direct buffer that is written to the file through a channel whenever it fills up.
+ */
+public class RawVideoWriter implements FrameWriter {
+    // Three bytes for every pixel: red, green and blue
+    private static final int BYTES_PER_PIXEL = 3;
+    // The buffer holds 256 KB, or at least a whole row
+    private static final int BUFFER_BYTES = 1 << 18;
+
+    private int width;
+    private int height;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int[] row;
+    private int frames;
+
+    /**
+     * Constructs a RawVideoWriter that saves frames of the given size into the given file,
+     * replacing whatever the file held before.
+     *
+     * @param file   the file to save the video in
+     * @param width  the width of every frame
+     * @param height the height of every frame
+     * @throws IOException if the file could not be opened
+     */
+    public RawVideoWriter(Path file, int width, int height) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_BYTES, width * BYTES_PER_PIXEL));
+        this.row = new int[width];
+    }
+
+    /**
+     * Adds the given frame to the video.
+     *
+     * @param frame the image of the frame
+     * @throws IOException if the frame could not be written
+     * @throws IllegalArgumentException if the frame is not of the size of the video
+     */
+    @Override
+    public void write(BufferedImage frame) throws IOException {
+        if (frame.getWidth() != width || frame.getHeight() != height) {
+            throw new IllegalArgumentException("The frame is " + frame.getWidth() + "x" + frame.getHeight()
+                    + " but the video is " + width + "x" + height);
+        }
+        // Images of packed ints hold their pixels as RGB already, other images need to be converted
+        boolean packed = frame.getType() == BufferedImage.TYPE_INT_RGB
+                || frame.getType() == BufferedImage.TYPE_INT_ARGB;
+        for (int y = 0; y < height; y++) {
+            if (packed) {
+                frame.getRaster().getDataElements(0, y, width, 1, row);
+            } else {
+                frame.getRGB(0, y, width, 1, row, 0, width);
+            }
+            if (buffer.remaining() < width * BYTES_PER_PIXEL) {
+                drain();
+            }
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                buffer.put((byte) (rgb >> 16));
+                buffer.put((byte) (rgb >> 8));
+                buffer.put((byte) rgb);
+            }
+        }
+        frames++;
+    }
+
+    @Override
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the width of the frames of the video.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the frames of the video.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Writes the frames still in the buffer and closes the file.
+     *
+     * @throws IOException if the frames could not be written or the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
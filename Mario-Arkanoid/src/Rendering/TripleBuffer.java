@@ -0,0 +1,75 @@
+package Rendering;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The TripleBuffer class hands objects from one thread that fills them to another that reads them,
+ * without locks and without either thread ever waiting for the other.
+ * Of its three objects, the writer owns one (the back), the reader owns one (the front), and the third
+ * sits in the middle. Publishing swaps the back with the middle, and taking swaps the middle with the front
+ * if something new was published since the last take. Both swaps are single atomic operations on an int
+ * that holds the index of the middle object and whether it is new.
+ * The writer may only touch the back object, and the reader may only touch the front object.
+ *
+ * @param <T> the type of the objects handed over
+ */
+public class TripleBuffer<T> {
+    // The low bits of the state hold the index of the middle object, this bit whether it is new
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Constructs a TripleBuffer over three distinct objects.
+     *
+     * @param first  the first object
+     * @param second the second object
+     * @param third  the third object
+     */
+    public TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[]{first, second, third};
+    }
+
+    /**
+     * Returns the object the writer fills next. Only the writer thread may call this.
+     *
+     * @return the back object
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Hands the back object to the reader, and gives the writer another object to fill.
+     * If the reader did not take the previous object, it is dropped and filled again later.
+     * Only the writer thread may call this.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Takes the newest published object, if one was published since the last take.
+     * Only the reader thread may call this.
+     *
+     * @return the newest object, or null if nothing new was published
+     */
+    @SuppressWarnings("unchecked")
+    public T take() {
+        while (true) {
+            int state = middle.get();
+            if ((state & FRESH) == 0) {
+                return null;
+            }
+            if (middle.compareAndSet(state, front)) {
+                front = state & INDEX;
+                return (T) slots[front];
+            }
+        }
+    }
+}
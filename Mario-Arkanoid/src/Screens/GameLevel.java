@@ -1,17 +1,22 @@
 package Screens;
 
+import Animations.Animation;
 import Animations.AnimationRunner;
 import Animations.CountdownAnimation;
+import Animations.SteppedAnimation;
 import Collidables.Collidable;
 import Geometry.Point;
 import Level.*;
 import ListenersAndNotifier.BallRemover;
 import ListenersAndNotifier.BlockRemover;
+import Rendering.DamageRegion;
+import Rendering.DetailTier;
+import Rendering.DirtyRectRenderer;
 import Sprites.*;
+import Sprites.Backgrounds.Background;
 import biuoop.DrawSurface;
 import biuoop.GUI;
 import biuoop.KeyboardSensor;
-import Animations.Animation;
 
 import java.awt.Color;
 import java.util.ArrayList;
@@ -23,9 +28,13 @@ import java.util.Random;
  * creating and adding game elements such as balls, blocks, and paddle,
  * and handling the drawing and updating of these elements.
  */
-public class GameLevel implements Animation {
+public class GameLevel implements SteppedAnimation {
+    // Copying a cached layer of the whole screen costs about as much as drawing a thousand blocks,
+    // so only levels with many more blocks than that draw them from a cache
+    private static final int CACHED_BLOCKS = 2000;
     private SpriteCollection sprites;
     private GameEnvironment environment;
+    private BallSystem balls;
     private GUI gui;
     private Paddle paddle;
     private Counter removedBlocks;
@@ -36,6 +45,15 @@ public class GameLevel implements Animation {
     private KeyboardSensor keyboardSensor;
     private LevelInformation levelInformation;
     private ScoreTrackingListener scoreTrackingListener;
+    private ScoreIndicator scoreIndicator;
+    private DirtyRectRenderer dirtyRenderer;
+    private HitEventQueue hitEvents;
+    private boolean dirtyRendering;
+    private boolean renderThread;
+    private Sprite background;
+    private Random random = new Random();
+    // The screen shown once the level stopped, if the game ends with the level
+    private Animation endScreen;
     private static int counterLevels;
 
     /**
@@ -45,19 +63,51 @@ public class GameLevel implements Animation {
      * @param scoreTrackingListener the listener for tracking the game score
      */
     public GameLevel(LevelInformation levelInformation, ScoreTrackingListener scoreTrackingListener) {
+        this(levelInformation, scoreTrackingListener, new GUI("Arkanoid", 800, 600));
+    }
+
+    /**
+     * Constructs a new GameLevel object that shows itself on the given GUI.
+     *
+     * @param levelInformation      the information about the current level
+     * @param scoreTrackingListener the listener for tracking the game score
+     * @param gui                   the window the level is shown in
+     */
+    private GameLevel(LevelInformation levelInformation, ScoreTrackingListener scoreTrackingListener, GUI gui) {
+        this(levelInformation, scoreTrackingListener, gui.getKeyboardSensor());
+        this.gui = gui;
+        this.runner = new AnimationRunner(gui);
+    }
+
+    /**
+     * Constructs a new headless GameLevel object, without any window.
+     * A headless level is advanced with step() and drawn with render() by its owner. It never shows
+     * the pause, win or game over screens, and does not count towards the levels of the GameFlow.
+     *
+     * @param levelInformation      the information about the current level
+     * @param scoreTrackingListener the listener for tracking the game score
+     * @param keyboardSensor        the keyboard sensor the paddle reads
+     */
+    public GameLevel(LevelInformation levelInformation, ScoreTrackingListener scoreTrackingListener,
+                     KeyboardSensor keyboardSensor) {
         environment = new GameEnvironment(new ArrayList<>());
         sprites = new SpriteCollection(new ArrayList<>());
+        balls = new BallSystem(environment);
+        dirtyRenderer = new DirtyRectRenderer(800, 600);
+        hitEvents = new HitEventQueue();
         removedBlocks = new Counter(0);
         remainingBalls = new Counter(0);
         this.scoreTrackingListener = scoreTrackingListener;
         ballRemover = new BallRemover(this, this.remainingBalls);
-        this.gui = new GUI("Arkanoid", 800, 600);
-        this.runner = new AnimationRunner(gui);
         this.running = true;
-        keyboardSensor = gui.getKeyboardSensor();
+        this.keyboardSensor = keyboardSensor;
         this.levelInformation = levelInformation;
     }
 
+    public int getRemainingBalls() {
+        return remainingBalls.getValue();
+    }
+
     public KeyboardSensor getKeyboardSensor() {
         return keyboardSensor;
     }
@@ -66,6 +116,99 @@ public class GameLevel implements Animation {
         return environment;
     }
 
+    /**
+     * Chooses whether the collisions of the balls are looked up on several threads.
+     * The game plays out the same way in both modes. The parallel mode is off unless asked for.
+     *
+     * @param parallel true to use the parallel mode, false otherwise
+     */
+    public void setParallelUpdate(boolean parallel) {
+        balls.setParallel(parallel);
+    }
+
+    /**
+     * Chooses whether frames only draw again the parts of the screen that changed since the last frame.
+     * In this mode the sprites are drawn where they are, without going between their previous and
+     * current state, and the frame is kept in an image of its own that is copied to the screen.
+     *
+     * @param dirty true to only draw the changed parts, false to draw everything every frame
+     */
+    public void setDirtyRendering(boolean dirty) {
+        if (dirty && !dirtyRendering) {
+            dirtyRenderer.invalidate();
+        }
+        this.dirtyRendering = dirty;
+    }
+
+    /**
+     * Sets the seed of the random places the balls start from, so a level initialized
+     * with the same seed plays the same way every time, as long as the paddle moves the same way.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Chooses whether the frames of the level are shown on the window by a thread of their own,
+     * while the next ticks run. Frames are then drawn in full even in the dirty rendering mode,
+     * since its back buffer changes on the next frame, while the render thread may still be copying it.
+     * For the same reason, the cached layers and the score indicator draw their changes into new images.
+     *
+     * @param renderThread true to show frames from a render thread, false otherwise
+     */
+    public void setRenderThread(boolean renderThread) {
+        this.renderThread = renderThread;
+        this.sprites.setShared(renderThread);
+        if (this.scoreIndicator != null) {
+            this.scoreIndicator.setShared(renderThread);
+        }
+        if (this.runner != null) {
+            this.runner.setRenderThread(renderThread);
+        }
+    }
+
+    /**
+     * Sets the tier of detail of all the sprites of the level, and freezes the background
+     * below the full detail. In the dirty rendering mode, the next frame is drawn in full.
+     *
+     * @param tier the tier of detail
+     */
+    @Override
+    public void setDetail(DetailTier tier) {
+        if (tier == sprites.getDetail()) {
+            return;
+        }
+        sprites.setDetail(tier);
+        if (background instanceof Background) {
+            ((Background) background).setAnimated(tier == DetailTier.FULL);
+        }
+        dirtyRenderer.invalidate();
+    }
+
+    /**
+     * Returns the region where the sprites of the level report the parts of the screen they changed.
+     *
+     * @return the damage region of the level
+     */
+    public DamageRegion getDamage() {
+        return dirtyRenderer.getDamage();
+    }
+
+    /**
+     * Returns the queue the hit events of the level wait in until the end of the tick.
+     *
+     * @return the hit event queue of the level
+     */
+    public HitEventQueue getHitEvents() {
+        return hitEvents;
+    }
+
+    public BallSystem getBallSystem() {
+        return balls;
+    }
+
     public BallRemover getBallRemover() {
         return ballRemover;
     }
@@ -78,18 +221,20 @@ public class GameLevel implements Animation {
      * Adds a collidable object to the game environment.
      *
      * @param c the collidable object to add
+     * @return the handle that removes the collidable with removeCollidable(long)
      */
-    public void addCollidable(Collidable c) {
-        environment.addCollidable(c);
+    public long addCollidable(Collidable c) {
+        return environment.addCollidable(c);
     }
 
     /**
      * Adds a sprite object to the sprite collection.
      *
      * @param s the sprite object to add
+     * @return the handle that removes the sprite with removeSprite(long)
      */
-    public void addSprite(Sprite s) {
-        sprites.addSprite(s);
+    public long addSprite(Sprite s) {
+        return sprites.addSprite(s);
     }
 
     /**
@@ -97,22 +242,23 @@ public class GameLevel implements Animation {
      * and adding them to the game.
      */
     public void initialize() {
-        Sprite background = levelInformation.getBackground();
+        this.background = levelInformation.getBackground();
         background.addToGame(this);
-        Random random = new Random();
         this.paddle = new Paddle(keyboardSensor, levelInformation);
         this.paddle.addToGame(this);
 
         BlockRemover remover = new BlockRemover(this, this.removedBlocks);
-        ScoreIndicator score = new ScoreIndicator(scoreTrackingListener.getCurrentScore(), this.levelInformation);
-        score.addToGame(this);
+        this.scoreIndicator = new ScoreIndicator(scoreTrackingListener.getCurrentScore(), this.levelInformation);
+        this.scoreIndicator.setShared(renderThread);
+        this.scoreIndicator.addToGame(this);
 
+        balls.addToGame(this);
+        balls.addHitListener(ballRemover);
         Color[] colors = new Color[]{Color.red, Color.green, Color.blue, Color.orange, Color.gray, Color.pink};
         for (int i = 0; i < levelInformation.numberOfBalls(); i++) {
             Ball ball1 = new Ball(new Point(random.nextInt(740) + 30, 500), 4, colors[i], environment);
             ball1.setVelocity(levelInformation.initialBallVelocities().get(i));
             ball1.addToGame(this);
-            ball1.addHitListener(ballRemover);
             remainingBalls.increase(1);
         }
         createBounds(ballRemover);
@@ -121,31 +267,84 @@ public class GameLevel implements Animation {
 
     @Override
     public void doOneFrame(DrawSurface d) {
-        if (this.keyboardSensor.isPressed("p")) {
+        checkPause();
+        if (dirtyRendering) {
+            dirtyRenderer.render(d, sprites::drawAllOn);
+        } else {
+            this.sprites.drawAllOn(d);
+        }
+        update();
+    }
+
+    /**
+     * Advances the game by one tick: moves all the sprites and checks whether the level is over.
+     */
+    @Override
+    public void step() {
+        checkPause();
+        update();
+    }
+
+    /**
+     * Draws all the sprites between their state before the last tick and their current state,
+     * or only the parts of the screen that changed, in the dirty rendering mode.
+     *
+     * @param d     the surface to draw on
+     * @param alpha how far to go from the previous state to the current one, between 0 and 1
+     */
+    @Override
+    public void render(DrawSurface d, double alpha) {
+        if (dirtyRendering && !renderThread) {
+            dirtyRenderer.render(d, sprites::drawAllOn);
+        } else {
+            this.sprites.drawAllOn(d, alpha);
+        }
+    }
+
+    /**
+     * Shows the pause screen if the pause key is pressed.
+     */
+    private void checkPause() {
+        if (this.runner != null && this.keyboardSensor.isPressed("p")) {
             this.runner.run(new PauseScreen(this.keyboardSensor));
         }
+    }
 
-        this.sprites.drawAllOn(d);
+    /**
+     * Notifies all sprites that time passed, sends the hit events of the tick to their listeners,
+     * then ends the level if all its blocks or all the balls are gone.
+     * The win or game over screen is only chosen here, and shown by run() once the level stopped.
+     */
+    private void update() {
         this.sprites.notifyAllTimePassed();
+        this.hitEvents.flush();
 
-        if (this.environment.getBlocks().size() == 5) {
-            counterLevels++;
+        if (this.environment.size() == 5) {
             scoreTrackingListener.setCurrentScore(100);
-            this.running = false;
-            System.out.println(counterLevels);
-            if (counterLevels == GameFlow.getCounter()) {
-                this.runner.run(new Win(this.keyboardSensor, scoreTrackingListener));
-                gui.close();
+            stop();
+            if (this.gui != null) {
+                counterLevels++;
+                if (counterLevels == GameFlow.getCounter()) {
+                    this.endScreen = new Win(this.keyboardSensor, scoreTrackingListener);
+                }
             }
-            this.sprites.drawAllOn(d);
         }
         if (this.remainingBalls.getValue() == 0) {
-            this.running = false;
-            this.runner.run(new GameOver(this.keyboardSensor, this.scoreTrackingListener));
-            gui.close();
+            stop();
+            if (this.gui != null && this.endScreen == null) {
+                this.endScreen = new GameOver(this.keyboardSensor, this.scoreTrackingListener);
+            }
         }
     }
 
+    /**
+     * Stops the level, and takes its score indicator off the score, which is shared by all the levels.
+     */
+    private void stop() {
+        this.running = false;
+        this.scoreIndicator.removeFromGame(this);
+    }
+
     @Override
     public boolean shouldStop() {
         return !this.running;
@@ -153,6 +352,8 @@ public class GameLevel implements Animation {
 
     /**
      * Runs the game, starting the animation loop.
+     * If the game ends with the level, its win or game over screen is shown once the level stopped,
+     * when no render thread uses the window any more, and the window is then closed.
      */
     public void run() {
         this.runner.run(new CountdownAnimation(1, 3, sprites)); // countdown before turn starts.
@@ -160,6 +361,10 @@ public class GameLevel implements Animation {
         // use our runner to run the current animation -- which is one turn of
         // the game.
         this.runner.run(this);
+        if (this.endScreen != null) {
+            this.runner.run(this.endScreen);
+            this.gui.close();
+        }
     }
 
     /**
@@ -182,12 +387,14 @@ public class GameLevel implements Animation {
 
     /**
      * Creates the blocks in the game and adds them to the game.
+     * Levels with many blocks draw them from a cached image, drawn again only when a block is removed.
      *
      * @param remover       the BlockRemover that handles block removal
      * @param scoreListener the ScoreTrackingListener that handles score updates
      */
     public void createBlocks(BlockRemover remover, ScoreTrackingListener scoreListener) {
         List<Block> blocks = levelInformation.blocks();
+        sprites.setCached(SpriteLayer.BLOCKS, blocks.size() >= CACHED_BLOCKS, 800, 600);
         for (Block block : blocks) {
             block.addToGame(this);
             block.addHitListener(remover);
@@ -204,6 +411,15 @@ public class GameLevel implements Animation {
         environment.removeCollidableFromCollection(c);
     }
 
+    /**
+     * Removes the collidable object with the given handle from the game environment, in constant time.
+     *
+     * @param handle the handle the collidable got when it was added
+     */
+    public void removeCollidable(long handle) {
+        environment.removeCollidable(handle);
+    }
+
     /**
      * Removes a sprite object from the sprite collection.
      *
@@ -212,4 +428,13 @@ public class GameLevel implements Animation {
     public void removeSprite(Sprite s) {
         sprites.removeSpriteFromCollection(s);
     }
+
+    /**
+     * Removes the sprite object with the given handle from the sprite collection, in constant time.
+     *
+     * @param handle the handle the sprite got when it was added
+     */
+    public void removeSprite(long handle) {
+        sprites.removeSprite(handle);
+    }
 }
@@ -19,6 +19,8 @@ import java.util.Random;
  * and the conditions for clearing the level.
  */
 public class Level1 implements LevelInformation {
+    // The seed of the places of the special blocks, or null to place them anew every time
+    private Long seed;
 
     /**
      * Returns the number of balls to be used in this level.
@@ -84,6 +86,16 @@ public class Level1 implements LevelInformation {
         return new Background1();
     }
 
+    /**
+     * Sets the seed of the random places of the special blocks, so the blocks of the level
+     * are laid out the same way every time they are asked for.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
     /**
      * Returns a list of blocks that make up this level. This includes regular blocks
      * as well as special blocks that may have unique behaviors.
@@ -93,7 +105,7 @@ public class Level1 implements LevelInformation {
     @Override
     public List<Block> blocks() {
         List<Block> blocks = new ArrayList<>();
-        Random random = new Random();
+        Random random = seed == null ? new Random() : new Random(seed);
         boolean flagRemove = true;
         boolean flagAdd = true;
         Color[] colors = {Color.red, Color.yellow,
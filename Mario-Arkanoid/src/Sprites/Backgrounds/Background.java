@@ -1,6 +1,8 @@
 package Sprites.Backgrounds;
 
+import Rendering.DetailTier;
 import Sprites.Sprite;
+import Sprites.SpriteLayer;
 
 /**
  * The Background class is an abstract class that represents a background in the game.
@@ -8,6 +10,57 @@ import Sprites.Sprite;
  * to the game's sprite collection and drawn on the screen.
  * Subclasses of Background should provide specific implementations for the
  * drawing and appearance of different backgrounds.
+ * A background may be told to stop animating, or to leave out its decorations,
+ * to save time when frames are too slow.
  */
 public abstract class Background implements Sprite {
+    private boolean animated = true;
+    private DetailTier detail = DetailTier.FULL;
+
+    /**
+     * Chooses whether the background moves as time passes, or stays as it is.
+     *
+     * @param animated true to animate the background, false to freeze it
+     */
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
+    }
+
+    /**
+     * Indicates whether the background moves as time passes.
+     *
+     * @return true if the background is animated, false if it is frozen
+     */
+    public boolean isAnimated() {
+        return animated;
+    }
+
+    /**
+     * Sets the tier of detail the background is drawn in.
+     *
+     * @param tier the tier of detail
+     */
+    @Override
+    public void setDetail(DetailTier tier) {
+        this.detail = tier;
+    }
+
+    /**
+     * Returns the tier of detail the background is drawn in.
+     *
+     * @return the tier of detail
+     */
+    public DetailTier getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the layer of the background, the one drawn first.
+     *
+     * @return the background layer
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.BACKGROUND;
+    }
 }
@@ -1,5 +1,8 @@
 package Sprites.Backgrounds;
 
+import Rendering.DamageRegion;
+import Rendering.DetailTier;
+import Rendering.LayerCache;
 import Screens.GameLevel;
 import biuoop.DrawSurface;
 
@@ -10,17 +13,41 @@ import java.awt.*;
  * It contains various elements such as hills, bushes, clouds, and a Piranha plant.
  * This class extends the Background class and implements the drawing and animation logic
  * specific to this background.
+ * Everything but the Piranha plant is still, so it is drawn once into a cached image
+ * that is copied to the screen every frame, and only the Piranha plant is drawn on top of it.
+ * Every move of the Piranha plant is reported to the damage region of the game.
+ * Below the full detail the clouds and bushes are left out, and in the minimal detail the Piranha plant too.
  */
 public class Background1 extends Background {
     // Piranha plant's vertical position
     private int piranhaY = PIPE_Y;
     private boolean movingUp = true; // Flag to control the direction of the piranha's movement
+    private DamageRegion damage;
 
     private static final int WIDTH = 800; // Width of the background
     private static final int HEIGHT = 600; // Height of the background
     private static final int PIPE_X = 300; // X position for the pipe
     private static final int PIPE_Y = HEIGHT - 170; // Y position for the pipe
     private static final int PIRANHA_HEIGHT = 60; // Height of the Piranha plant
+    private static final Color GROUND_GREEN = new Color(124, 252, 0); // Green color for ground
+    private static final Color HILL_GREEN = new Color(34, 139, 34); // Green color for hills
+    private static final Color BUSH_GREEN = new Color(0, 128, 0); // Dark green for bushes
+    // The clouds are drawn above the Piranha plant, but never overlap it, so they can be cached below it.
+    // Every background has its images of its own, since levels may be played on several threads at once.
+    private final LayerCache stillLayer = new LayerCache(WIDTH, HEIGHT, false, d -> {
+        drawBackground(d);
+        drawHills(d);
+        drawBushes(d);
+        drawGround(d);
+        drawPipes(d);
+        drawClouds(d);
+    });
+    private final LayerCache plainLayer = new LayerCache(WIDTH, HEIGHT, false, d -> {
+        drawBackground(d);
+        drawHills(d);
+        drawGround(d);
+        drawPipes(d);
+    });
 
     /**
      * Draws the background on the specified DrawSurface.
@@ -29,20 +56,25 @@ public class Background1 extends Background {
      */
     @Override
     public void drawOn(DrawSurface d) {
-        drawBackground(d);
-        drawHills(d);
-        drawBushes(d);
-        drawGround(d);
-        drawPipes(d);
-        drawPiranha(d, PIPE_X, piranhaY);
-        drawClouds(d);
+        if (getDetail() == DetailTier.FULL) {
+            stillLayer.drawOn(d);
+        } else {
+            plainLayer.drawOn(d);
+        }
+        if (getDetail() != DetailTier.MINIMAL) {
+            drawPiranha(d, PIPE_X, piranhaY);
+        }
     }
 
     /**
-     * Updates the Piranha plant's position based on its movement logic.
+     * Updates the Piranha plant's position based on its movement logic, unless the background is frozen.
      */
     @Override
     public void timePassed() {
+        if (!isAnimated()) {
+            return;
+        }
+        damagePiranha();
         if (movingUp) {
             piranhaY -= 2;
             if (piranhaY <= PIPE_Y - PIRANHA_HEIGHT) {
@@ -54,6 +86,17 @@ public class Background1 extends Background {
                 movingUp = true; // Switch direction to up
             }
         }
+        damagePiranha();
+    }
+
+    /**
+     * Reports where the Piranha plant is drawn now to the damage region of the game, if it is in a game.
+     */
+    private void damagePiranha() {
+        if (damage != null) {
+            // From the top of the head, 50 pixels above piranhaY, down to the pipe
+            damage.add(PIPE_X, piranhaY - 50, 50, PIPE_Y - piranhaY + 50);
+        }
     }
 
     /**
@@ -64,6 +107,7 @@ public class Background1 extends Background {
     @Override
     public void addToGame(GameLevel g) {
         g.addSprite(this);
+        damage = g.getDamage();
     }
 
     // The following methods handle the drawing of various elements in the background...
@@ -84,7 +128,7 @@ public class Background1 extends Background {
      * @param d the DrawSurface on which to draw
      */
     public static void drawGround(DrawSurface d) {
-        d.setColor(new Color(124, 252, 0)); // Green color for ground
+        d.setColor(GROUND_GREEN);
         d.fillRectangle(0, HEIGHT - 100, WIDTH, 100);
     }
 
@@ -157,7 +201,7 @@ public class Background1 extends Background {
      * @param d the DrawSurface on which to draw
      */
     public static void drawHills(DrawSurface d) {
-        d.setColor(new Color(34, 139, 34)); // Green color for hills
+        d.setColor(HILL_GREEN);
         drawHill(d, 50, HEIGHT - 150, 200, 100);
         drawHill(d, 500, HEIGHT - 200, 300, 150);
     }
@@ -181,7 +225,7 @@ public class Background1 extends Background {
      * @param d the DrawSurface on which to draw
      */
     public static void drawBushes(DrawSurface d) {
-        d.setColor(new Color(0, 128, 0)); // Dark green for bushes
+        d.setColor(BUSH_GREEN);
         drawBush(d, 150, HEIGHT - 130, 100, 50);
         drawBush(d, 400, HEIGHT - 130, 150, 50);
         drawBush(d, 650, HEIGHT - 130, 100, 50);
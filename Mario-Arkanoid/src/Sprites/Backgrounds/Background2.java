@@ -1,5 +1,7 @@
 package Sprites.Backgrounds;
 
+import Rendering.DetailTier;
+import Rendering.LayerCache;
 import Screens.GameLevel;
 import biuoop.DrawSurface;
 
@@ -10,8 +12,22 @@ import java.awt.*;
  * This background features a dark cave with subtle lighting effects
  * and blocks that may represent the cave floor.
  * It extends the Background class and implements the drawing logic for this environment.
+ * Nothing in it moves, so it is drawn once into a cached image that is copied to the screen every frame.
+ * Below the full detail the light and the cracked blocks are left out, and the floor is a plain strip.
  */
 public class Background2 extends Background {
+    private static final Color CAVE = new Color(30, 30, 30); // Dark cave
+    private static final Color LIGHT = new Color(50, 50, 50); // Subtle light effect
+    private static final Color BLOCK = new Color(0, 0x7c, 0x8d);
+    // Every background has its images of its own, since levels may be played on several threads at once
+    private final LayerCache layer = new LayerCache(800, 600, false, Background2::drawBackground);
+    private final LayerCache plainLayer = new LayerCache(800, 600, false, d -> {
+        d.setColor(CAVE);
+        d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
+        d.setColor(BLOCK);
+        d.fillRectangle(0, 520, 800, 80); // Where the two rows of blocks are
+    });
+
     /**
      * Draws the background on the specified DrawSurface.
      *
@@ -19,7 +35,11 @@ public class Background2 extends Background {
      */
     @Override
     public void drawOn(DrawSurface d) {
-        drawBackground(d);
+        if (getDetail() == DetailTier.FULL) {
+            layer.drawOn(d);
+        } else {
+            plainLayer.drawOn(d);
+        }
     }
 
     /**
@@ -46,9 +66,9 @@ public class Background2 extends Background {
      */
     public static void drawBackground(DrawSurface d) {
         // Dark background with subtle lighting effect
-        d.setColor(new Color(30, 30, 30));  // Dark cave
+        d.setColor(CAVE);  // Dark cave
         d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
-        d.setColor(new Color(50, 50, 50)); // Subtle light effect
+        d.setColor(LIGHT); // Subtle light effect
         d.fillOval(300, 100, 400, 400);  // Light in the cave
 
         drawBlocks(d); // Draw blocks on the cave floor
@@ -60,12 +80,11 @@ public class Background2 extends Background {
      * @param d the DrawSurface on which to draw the blocks
      */
     public static void drawBlocks(DrawSurface d) {
-        Color blockColor = new Color(0, 0x7c, 0x8d);
         for (int i = 0; i < 800; i += 40) {
-            drawBlock(d, i, 560, blockColor); // Draw first row of blocks
+            drawBlock(d, i, 560, BLOCK); // Draw first row of blocks
         }
         for (int i = 0; i < 800; i += 40) {
-            drawBlock(d, i, 520, blockColor); // Draw second row of blocks
+            drawBlock(d, i, 520, BLOCK); // Draw second row of blocks
         }
     }
 
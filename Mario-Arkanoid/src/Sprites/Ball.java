@@ -1,16 +1,15 @@
 package Sprites;
 
 import Collidables.CollisionInfo;
-import Geometry.Line;
 import Geometry.Point;
 import Screens.GameLevel;
 import Level.GameEnvironment;
 import ListenersAndNotifier.HitNotifier;
 import ListenersAndNotifier.HitListener;
+import ListenersAndNotifier.HitListenerRegistry;
+import Rendering.DetailTier;
 import biuoop.DrawSurface;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.awt.Color;
 
 /**
@@ -19,16 +18,17 @@ import java.awt.Color;
  * a specified surface or within specific boundaries.
  * The ball's movement is constrained by collision detection with the edges of the surface
  * or defined boundaries, and it can respond to intersections with lines and corners.
+ * The state of a ball is kept in a Sprites.BallSystem, and the ball is a view over its slot there.
+ * A new ball has a system of its own, and moves into the system of the game when added to it.
  */
 public class Ball implements Sprite, HitNotifier {
-    private int radius;
-    private Point center;
-    private Color color;
-    private Velocity v;
-    private Line verticalLine;
-    private Line horizontalLine;
-    private GameEnvironment game;
-    private List<HitListener> hitListeners = new ArrayList<>();
+    // The color of the face of the mushroom
+    private static final Color BEIGE = new Color(254, 232, 173);
+    private BallSystem system;
+    private int slot;
+    private HitListenerRegistry hitListeners;
+    // The tier of detail the ball is drawn in on its own; the balls drawn by their system follow the system
+    private DetailTier detail = DetailTier.FULL;
 
     /**
      * Constructs a Sprites.Ball with a specified center point, radius, and color.
@@ -39,14 +39,48 @@ public class Ball implements Sprite, HitNotifier {
      * @param game   the game environment in which the ball moves
      */
     public Ball(Point center, int r, java.awt.Color color, GameEnvironment game) {
-        this.center = center;
-        this.radius = r;
-        this.color = color;
-        // Create a vertical line that intersects the center of the ball
-        verticalLine = new Line(center.getX(), center.getY() - radius, center.getX(), center.getY() + radius);
-        // Create a horizontal line that intersects the center of the ball
-        horizontalLine = new Line(center.getX() - radius, center.getY(), center.getX() + radius, center.getY());
-        this.game = game;
+        this.system = new BallSystem(game, 1);
+        this.slot = system.add(center.getX(), center.getY(), r, color, 0, 0, this);
+    }
+
+    /**
+     * Constructs a view over a ball that is already in a system.
+     *
+     * @param system the system holding the ball
+     * @param slot   the slot of the ball in the system
+     */
+    Ball(BallSystem system, int slot) {
+        this.system = system;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the system holding the state of this ball.
+     *
+     * @return the system of the ball
+     */
+    BallSystem getSystem() {
+        return system;
+    }
+
+    /**
+     * Returns the slot of this ball in its system.
+     *
+     * @return the slot of the ball
+     */
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Points this view at a new place, after its ball was moved there.
+     *
+     * @param newSystem the system now holding the ball
+     * @param newSlot   the slot of the ball in that system
+     */
+    void moveTo(BallSystem newSystem, int newSlot) {
+        this.system = newSystem;
+        this.slot = newSlot;
     }
 
     /**
@@ -55,7 +89,7 @@ public class Ball implements Sprite, HitNotifier {
      * @return the X coordinate of the ball's center
      */
     public int getX() {
-        return (int) center.getX();
+        return (int) system.getX(slot);
     }
 
     /**
@@ -64,7 +98,7 @@ public class Ball implements Sprite, HitNotifier {
      * @return the Y coordinate of the ball's center
      */
     public int getY() {
-        return (int) center.getY();
+        return (int) system.getY(slot);
     }
 
     /**
@@ -73,7 +107,7 @@ public class Ball implements Sprite, HitNotifier {
      * @param x the new X coordinate of the ball's center
      */
     public void setX(int x) {
-        center = new Point(x, getY());
+        system.setCenter(slot, x, getY());
     }
 
     /**
@@ -82,7 +116,7 @@ public class Ball implements Sprite, HitNotifier {
      * @param y the new Y coordinate of the ball's center
      */
     public void setY(int y) {
-        center = new Point(getX(), y);
+        system.setCenter(slot, getX(), y);
     }
 
     /**
@@ -91,7 +125,7 @@ public class Ball implements Sprite, HitNotifier {
      * @return the color of the ball
      */
     public java.awt.Color getColor() {
-        return color;
+        return system.getColor(slot);
     }
 
     /**
@@ -100,7 +134,7 @@ public class Ball implements Sprite, HitNotifier {
      * @return the center point of the ball
      */
     public Point getCenter() {
-        return center;
+        return new Point(system.getX(slot), system.getY(slot));
     }
 
     /**
@@ -109,11 +143,37 @@ public class Ball implements Sprite, HitNotifier {
      * @param surface the surface on which to draw the ball
      */
     public void drawOn(DrawSurface surface) {
-         drawChamp(surface, this.color, this.center);
+         drawChamp(surface, getColor(), system.getX(slot), system.getY(slot), detail);
 //        surface.setColor(this.color);
 //        surface.fillCircle(this.getX(), this.getY(), this.radius);
     }
 
+    /**
+     * Draws the ball on the given DrawSurface, between where it was before its last step
+     * and where it is now.
+     *
+     * @param surface the surface on which to draw the ball
+     * @param alpha   how far to go from the previous position to the current one, between 0 and 1
+     */
+    @Override
+    public void drawOn(DrawSurface surface, double alpha) {
+        double previousX = system.getPreviousX(slot);
+        double previousY = system.getPreviousY(slot);
+        double x = previousX + (system.getX(slot) - previousX) * alpha;
+        double y = previousY + (system.getY(slot) - previousY) * alpha;
+        drawChamp(surface, getColor(), x, y, detail);
+    }
+
+    /**
+     * Sets the tier of detail the ball is drawn in, when it is drawn on its own.
+     *
+     * @param tier the tier of detail
+     */
+    @Override
+    public void setDetail(DetailTier tier) {
+        this.detail = tier;
+    }
+
     /**
      * Draws the mushroom on the given DrawSurface.
      *
@@ -122,36 +182,66 @@ public class Ball implements Sprite, HitNotifier {
      * @param center the center point of the champion
      */
     public static void drawChamp(DrawSurface d, Color color, Geometry.Point center) {
-        Color white = Color.WHITE;
-        Color black = Color.BLACK;
-        Color beige = new Color(254, 232, 173);
-        double x = center.getX();
-        double y = center.getY();
+        drawChamp(d, color, center.getX(), center.getY());
+    }
 
+    /**
+     * Draws the mushroom on the given DrawSurface.
+     *
+     * @param d     the DrawSurface on which to draw
+     * @param color the color of the champion
+     * @param x     the x-coordinate of the center of the champion
+     * @param y     the y-coordinate of the center of the champion
+     */
+    public static void drawChamp(DrawSurface d, Color color, double x, double y) {
         d.setColor(color);
         d.fillOval((int) (x - 10), (int) (y - 10), 20, 16);
 
-        d.setColor(beige);
+        d.setColor(BEIGE);
         d.fillOval((int) (x - 7), (int) y, 15, 11);
 
-        d.setColor(black);
+        d.setColor(Color.BLACK);
         d.fillOval((int) (x - 4), (int) (y + 1), 3, 5);
         d.fillOval((int) (x + 1), (int) (y + 1), 3, 5);
 
-        d.setColor(white);
+        d.setColor(Color.WHITE);
         d.fillCircle((int) x, (int) y - 5, 3);
         d.fillOval((int) (x - 11), (int) (y - 5), 3, 5);
         d.fillOval((int) (x + 7), (int) (y - 5), 3, 5);
     }
 
+    /**
+     * Draws the mushroom on the given DrawSurface in the given tier of detail.
+     * Below the full detail, only the cap is drawn, as a single circle of the color of the champion.
+     *
+     * @param d      the DrawSurface on which to draw
+     * @param color  the color of the champion
+     * @param x      the x-coordinate of the center of the champion
+     * @param y      the y-coordinate of the center of the champion
+     * @param detail the tier of detail
+     */
+    public static void drawChamp(DrawSurface d, Color color, double x, double y, DetailTier detail) {
+        if (detail == DetailTier.FULL) {
+            drawChamp(d, color, x, y);
+        } else {
+            d.setColor(color);
+            d.fillCircle((int) x, (int) y, 10); // Inside the 22 by 22 pixels of the full mushroom
+        }
+    }
+
     @Override
     public void timePassed() {
         moveOneStep();
     }
 
+    /**
+     * Adds the ball to the game, moving it into the ball system of the game.
+     *
+     * @param g the game to add the ball to
+     */
     @Override
     public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        g.getBallSystem().adopt(this);
     }
 
     /**
@@ -160,16 +250,17 @@ public class Ball implements Sprite, HitNotifier {
      * @param v the new velocity of the ball
      */
     public void setVelocity(Velocity v) {
-        this.v = v;
+        system.setVelocity(slot, v.getDx(), v.getDy());
     }
 
     /**
      * Gets the current velocity of the ball.
+     * The velocity is a copy: changing it does not change the ball until it is set back.
      *
      * @return the current velocity of the ball
      */
     public Velocity getVelocity() {
-        return v;
+        return new Velocity(system.getDx(slot), system.getDy(slot));
     }
 
     /**
@@ -178,46 +269,25 @@ public class Ball implements Sprite, HitNotifier {
      * @param center the new center point of the ball
      */
     public void setCenter(Point center) {
-        this.center = center;
+        system.setCenter(slot, center.getX(), center.getY());
     }
 
     /**
-     * Moves the ball one step, bouncing off the edges of the surface if necessary.
+     * Moves the ball one step, bouncing off the collidables on its way if necessary.
+     * The whole ball is swept along the step, so a fast ball stops exactly where it first touches
+     * a collidable instead of passing through it.
      */
     public void moveOneStep() {
-        Line trajectory = new Line(getCenter(), new Point(getX()
-                + getVelocity().getDx(), getY() + getVelocity().getDy()));
-        if (game.getClosestCollision(trajectory) == null
-                || game.getClosestCollision(trajectory).collisionPoint() == null) {
-            setCenter(trajectory.end());
-        } else {
-            CollisionInfo collision = game.getClosestCollision(trajectory);
-            if (getCenter().checkIfInBlock(collision.collisionObject())) {
-                adjustBall(collision);
-                return;
-            }
-            if (getVelocity().getDx() > 0) {
-                setX((int) (collision.collisionPoint().getX() - 2));
-            } else if (getVelocity().getDx() < 0) {
-                setX((int) (collision.collisionPoint().getX() + 2));
-            }
-            if (getVelocity().getDy() > 0) {
-                setY((int) (collision.collisionPoint().getY() - 2));
-            } else if (getVelocity().getDy() < 0) {
-                setY((int) (collision.collisionPoint().getY() + 2));
-            }
-            setVelocity(collision.collisionObject().hit(this, collision.collisionPoint(), getVelocity()));
-        }
+        system.moveOne(slot);
     }
 
     /**
-     * Adjusts the position of the ball based on the collision information.
+     * Moves a ball that got inside a collidable back above it, and bounces it.
      *
      * @param collidable the collision information
      */
     public void adjustBall(CollisionInfo collidable) {
-        setY((int) (collidable.collisionObject().getCollisionRectangle().getUpperLeft().getY() - 2));
-        setVelocity(collidable.collisionObject().hit(this, collidable.collisionPoint(), getVelocity()));
+        system.adjust(slot, collidable);
     }
 
     /**
@@ -226,7 +296,7 @@ public class Ball implements Sprite, HitNotifier {
      * @param color the new color of the ball
      */
     public void setColor(Color color) {
-        this.color = color;
+        system.setColor(slot, color);
     }
 
     /**
@@ -235,13 +305,16 @@ public class Ball implements Sprite, HitNotifier {
      * @param g the game from which to remove the ball
      */
     public void removeFromGame(GameLevel g) {
-        g.removeSprite(this);
+        g.getBallSystem().remove(this);
 
     }
 
     @Override
     public void addHitListener(HitListener hl) {
-        hitListeners.add(hl);
+        if (hitListeners == null) {
+            hitListeners = new HitListenerRegistry();
+        }
+        hitListeners.addHitListener(hl);
     }
 
     /**
@@ -250,20 +323,35 @@ public class Ball implements Sprite, HitNotifier {
      * @param hl the hit listener to remove
      */
     public void removeHitListener(HitListener hl) {
-        hitListeners.remove(hl);
+        if (hitListeners != null) {
+            hitListeners.removeHitListener(hl);
+        }
     }
 
     /**
-     * Notifies hit listeners about a hit event.
+     * Notifies hit listeners about a hit event: the listeners of the ball's system, then its own.
+     * If the system of the ball is in a game, they are notified at the end of the tick.
      *
      * @param hitter the block that was hit
      */
     public void notifyHit(Block hitter) {
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners = new ArrayList<>(this.hitListeners);
-        // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
-            hl.hitEvent(hitter, this);
+        HitEventQueue hitEvents = system.getHitEvents();
+        if (hitEvents != null) {
+            hitEvents.addBallHit(this, hitter);
+        } else {
+            dispatchHit(hitter);
+        }
+    }
+
+    /**
+     * Sends a hit event to the listeners of the ball's system, then to its own.
+     *
+     * @param hitter the block that was hit
+     */
+    void dispatchHit(Block hitter) {
+        system.notifyHit(slot, this, hitter);
+        if (hitListeners != null) {
+            hitListeners.notifyHit(hitter, this);
         }
     }
 }
@@ -0,0 +1,662 @@
+package Sprites;
+
+import Collidables.Collidable;
+import Collidables.CollidableGrid;
+import Collidables.CollisionInfo;
+import Geometry.Rectangle;
+import Level.GameEnvironment;
+import Rendering.DamageRegion;
+import Rendering.DetailTier;
+import ListenersAndNotifier.HitListener;
+import ListenersAndNotifier.HitListenerRegistry;
+import ListenersAndNotifier.HitNotifier;
+import Screens.GameLevel;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Sprites.BallSystem class holds many balls in primitive arrays, one array per property,
+ * and moves them all in a single loop against the game environment.
+ * A ball of the system only becomes an object when it is needed: when it hits a collidable,
+ * when it is asked for with get(), or when it is added with spawnBall().
+ * Such a Sprites.Ball is a view over its slot in the arrays.
+ * Balls keep the order in which they were added, and are moved and drawn in that order.
+ * Removed balls are only marked as removed, and are taken out of the arrays all together the next time
+ * the system is moved or its balls are read, so removing many balls costs a single pass over the arrays.
+ * Balls added while the system is moving them only start moving at the next tick.
+ * In parallel mode, the collisions of all the balls are first looked up at the same time on
+ * several threads. The balls are then moved one after the other in their order, and only the ones
+ * that may hit something are looked up again and bounced, so the hit events reach the listeners
+ * in the same order, with the same results, as when moving the balls one after the other.
+ * Once in a game, the system reports where its balls were and are to the damage region of the game,
+ * whenever they move, appear, change color or are removed.
+ */
+public class BallSystem implements Sprite, HitNotifier {
+    // How far a ball is kept from a surface after touching it
+    private static final double SKIN = 0.01;
+    private static final int DEFAULT_CAPACITY = 16;
+    // Fewer balls than this are moved on the calling thread only, even in parallel mode
+    private static final int PARALLEL_THRESHOLD = 1024;
+    // The number of balls looked up by a single parallel task
+    private static final int BALLS_PER_TASK = 256;
+    // Ball.drawChamp draws from 11 pixels left of the center to 10 right of it, and 10 above to 11 below
+    private static final int DRAWN_LEFT = 11;
+    private static final int DRAWN_TOP = 10;
+    private static final int DRAWN_SIZE = 22;
+
+    private GameEnvironment environment;
+    private DamageRegion damage;
+    private int size;
+    private double[] x, y;
+    private double[] previousX, previousY;
+    private double[] dx, dy;
+    private int[] radius;
+    private Color[] color;
+    private Ball[] views;
+    private boolean[] removed;
+    private boolean[] mayHit;
+    private boolean parallel;
+    private DetailTier detail = DetailTier.FULL;
+    private int pendingRemovals;
+    private int busy;
+    private CollisionInfo collision = new CollisionInfo();
+    // The velocity handed to the collidables that are hit, which may change it in place
+    private Velocity velocity = new Velocity(0, 0);
+    private HitListenerRegistry hitListeners = new HitListenerRegistry();
+    private HitEventQueue hitEvents;
+
+    /**
+     * Constructs an empty Sprites.BallSystem whose balls move in the given environment.
+     *
+     * @param environment the game environment in which the balls move
+     */
+    public BallSystem(GameEnvironment environment) {
+        this(environment, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty Sprites.BallSystem with room for the given number of balls.
+     * The system grows by itself when more balls are added.
+     *
+     * @param environment the game environment in which the balls move
+     * @param capacity    the number of balls to make room for
+     */
+    public BallSystem(GameEnvironment environment, int capacity) {
+        this.environment = environment;
+        capacity = Math.max(1, capacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        dx = new double[capacity];
+        dy = new double[capacity];
+        radius = new int[capacity];
+        color = new Color[capacity];
+        views = new Ball[capacity];
+        removed = new boolean[capacity];
+        mayHit = new boolean[capacity];
+    }
+
+    /**
+     * Chooses whether the collisions of many balls are looked up on several threads.
+     * The outcome of a tick is the same in both modes. Collisions are looked up one after the other
+     * unless the parallel mode is asked for.
+     *
+     * @param parallel true to look up collisions in parallel, false to look them up one after the other
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Adds a new ball to the system, without creating an object for it.
+     *
+     * @param centerX   the x-coordinate of the center of the ball
+     * @param centerY   the y-coordinate of the center of the ball
+     * @param r         the radius of the ball
+     * @param c         the color of the ball
+     * @param velocityX the change of x of the ball per step
+     * @param velocityY the change of y of the ball per step
+     */
+    public void spawn(double centerX, double centerY, int r, Color c, double velocityX, double velocityY) {
+        add(centerX, centerY, r, c, velocityX, velocityY, null);
+    }
+
+    /**
+     * Adds a new ball to the system together with its object, which is returned.
+     * Used for a ball added in the middle of a game, so its object is not created on its first hit instead.
+     *
+     * @param centerX   the x-coordinate of the center of the ball
+     * @param centerY   the y-coordinate of the center of the ball
+     * @param r         the radius of the ball
+     * @param c         the color of the ball
+     * @param velocityX the change of x of the ball per step
+     * @param velocityY the change of y of the ball per step
+     * @return the new ball
+     */
+    public Ball spawnBall(double centerX, double centerY, int r, Color c, double velocityX, double velocityY) {
+        int slot = add(centerX, centerY, r, c, velocityX, velocityY, null);
+        views[slot] = new Ball(this, slot);
+        return views[slot];
+    }
+
+    /**
+     * Returns the number of balls in the system, including the ones removed while the balls are moving.
+     *
+     * @return the number of balls
+     */
+    public int size() {
+        compact();
+        return size;
+    }
+
+    /**
+     * Returns the ball at the given position in the system.
+     * The same Sprites.Ball object is returned every time for the same ball.
+     *
+     * @param index the position of the ball, between 0 and size() - 1
+     * @return the ball
+     */
+    public Ball get(int index) {
+        compact();
+        if (views[index] == null) {
+            views[index] = new Ball(this, index);
+        }
+        return views[index];
+    }
+
+    /**
+     * Moves a ball into this system from the system it is in now.
+     * The ball keeps its position, velocity, color and listeners.
+     *
+     * @param ball the ball to move into this system
+     */
+    public void adopt(Ball ball) {
+        BallSystem from = ball.getSystem();
+        if (from == this) {
+            if (removed[ball.getSlot()]) {
+                // Removed, but not taken out of the arrays yet: it only needs to be marked back
+                removed[ball.getSlot()] = false;
+                pendingRemovals--;
+                damage(ball.getSlot());
+            }
+            return;
+        }
+        int slot = ball.getSlot();
+        int index = add(from.x[slot], from.y[slot], from.radius[slot], from.color[slot],
+                from.dx[slot], from.dy[slot], ball);
+        previousX[index] = from.previousX[slot];
+        previousY[index] = from.previousY[slot];
+        from.views[slot] = null;
+        from.markRemoved(slot);
+        ball.moveTo(this, index);
+    }
+
+    /**
+     * Removes a ball from this system. Does nothing if the ball is not in this system.
+     * The ball keeps working on its own after it is removed, but no longer moves with the system.
+     *
+     * @param ball the ball to remove
+     */
+    public void remove(Ball ball) {
+        if (ball.getSystem() == this) {
+            markRemoved(ball.getSlot());
+        }
+    }
+
+    /**
+     * Moves every ball of the system by one step.
+     */
+    @Override
+    public void timePassed() {
+        compact();
+        busy++;
+        int count = size;
+        if (parallel && count >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            moveAllParallel(count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (!removed[i]) {
+                    damage(i);
+                    move(i);
+                    damage(i);
+                }
+            }
+        }
+        busy--;
+        compact();
+    }
+
+    /**
+     * Moves the given number of first balls, after looking up their collisions in parallel.
+     * A ball with no collision in the lookup cannot get one from hits of the balls before it,
+     * since hits only remove collidables, and in a game not before the end of the tick,
+     * so it is moved straight away. The other balls are moved as usual.
+     * If a collidable is added or moved meanwhile, all the remaining balls are moved as usual.
+     *
+     * @param count the number of balls to move
+     */
+    private void moveAllParallel(int count) {
+        ForkJoinPool.commonPool().invoke(new Lookup(this, 0, count));
+        long changes = environment.getChangeCount();
+        for (int i = 0; i < count; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            damage(i);
+            if (mayHit[i] || environment.getChangeCount() != changes) {
+                move(i);
+            } else {
+                previousX[i] = x[i];
+                previousY[i] = y[i];
+                x[i] += dx[i];
+                y[i] += dy[i];
+            }
+            damage(i);
+        }
+    }
+
+    /**
+     * Draws every ball of the system.
+     *
+     * @param d the surface to draw on
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        for (int i = 0; i < size; i++) {
+            if (!removed[i]) {
+                Ball.drawChamp(d, color[i], x[i], y[i], detail);
+            }
+        }
+    }
+
+    /**
+     * Draws every ball of the system between where it was before its last step and where it is now.
+     *
+     * @param d     the surface to draw on
+     * @param alpha how far to go from the previous positions to the current ones, between 0 and 1
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        for (int i = 0; i < size; i++) {
+            if (!removed[i]) {
+                Ball.drawChamp(d, color[i], previousX[i] + (x[i] - previousX[i]) * alpha,
+                        previousY[i] + (y[i] - previousY[i]) * alpha, detail);
+            }
+        }
+    }
+
+    /**
+     * Sets the tier of detail all the balls of the system are drawn in.
+     *
+     * @param tier the tier of detail
+     */
+    @Override
+    public void setDetail(DetailTier tier) {
+        this.detail = tier;
+    }
+
+    /**
+     * Adds the system to the game, and reports the changes of its balls to the damage region of the game.
+     *
+     * @param g the game to add the system to
+     */
+    @Override
+    public void addToGame(GameLevel g) {
+        g.addSprite(this);
+        damage = g.getDamage();
+        hitEvents = g.getHitEvents();
+        for (int i = 0; i < size; i++) {
+            damage(i);
+        }
+    }
+
+    /**
+     * Returns the queue the hit events of the balls wait in until the end of the tick.
+     *
+     * @return the hit event queue of the game of the system, or null if it is not in a game
+     */
+    HitEventQueue getHitEvents() {
+        return hitEvents;
+    }
+
+    /**
+     * Adds a listener to hit events of every ball in this system.
+     *
+     * @param hl the listener to add
+     */
+    @Override
+    public void addHitListener(HitListener hl) {
+        hitListeners.addHitListener(hl);
+    }
+
+    /**
+     * Removes a listener to hit events of every ball in this system.
+     *
+     * @param hl the listener to remove
+     */
+    @Override
+    public void removeHitListener(HitListener hl) {
+        hitListeners.removeHitListener(hl);
+    }
+
+    /**
+     * Notifies the listeners of the system about a hit event of one of its balls,
+     * unless that ball was already removed.
+     *
+     * @param slot   the slot of the ball
+     * @param ball   the ball
+     * @param hitter the block that was hit
+     */
+    void notifyHit(int slot, Ball ball, Block hitter) {
+        if (removed[slot]) {
+            return;
+        }
+        hitListeners.notifyHit(hitter, ball);
+    }
+
+    /**
+     * Moves one ball of the system by one step.
+     *
+     * @param slot the slot of the ball
+     */
+    void moveOne(int slot) {
+        busy++;
+        damage(slot);
+        move(slot);
+        damage(slot);
+        busy--;
+        compact();
+    }
+
+    /**
+     * Moves a ball that got inside a collidable back above it, and bounces it.
+     *
+     * @param slot       the slot of the ball
+     * @param collidable the collision information
+     */
+    void adjust(int slot, CollisionInfo collidable) {
+        busy++;
+        damage(slot);
+        bounceOut(slot, collidable);
+        damage(slot);
+        busy--;
+        compact();
+    }
+
+    double getX(int slot) {
+        return x[slot];
+    }
+
+    double getY(int slot) {
+        return y[slot];
+    }
+
+    double getPreviousX(int slot) {
+        return previousX[slot];
+    }
+
+    double getPreviousY(int slot) {
+        return previousY[slot];
+    }
+
+    void setCenter(int slot, double centerX, double centerY) {
+        damage(slot);
+        x[slot] = centerX;
+        y[slot] = centerY;
+        damage(slot);
+    }
+
+    double getDx(int slot) {
+        return dx[slot];
+    }
+
+    double getDy(int slot) {
+        return dy[slot];
+    }
+
+    void setVelocity(int slot, double velocityX, double velocityY) {
+        dx[slot] = velocityX;
+        dy[slot] = velocityY;
+    }
+
+    int getRadius(int slot) {
+        return radius[slot];
+    }
+
+    Color getColor(int slot) {
+        return color[slot];
+    }
+
+    void setColor(int slot, Color c) {
+        color[slot] = c;
+        damage(slot);
+    }
+
+    /**
+     * Adds a ball to the end of the arrays, growing them if they are full.
+     *
+     * @param centerX   the x-coordinate of the center of the ball
+     * @param centerY   the y-coordinate of the center of the ball
+     * @param r         the radius of the ball
+     * @param c         the color of the ball
+     * @param velocityX the change of x of the ball per step
+     * @param velocityY the change of y of the ball per step
+     * @param view      the object of the ball, or null if it has none yet
+     * @return the slot of the new ball
+     */
+    int add(double centerX, double centerY, int r, Color c, double velocityX, double velocityY, Ball view) {
+        if (size == x.length) {
+            grow();
+        }
+        int slot = size++;
+        x[slot] = centerX;
+        y[slot] = centerY;
+        previousX[slot] = centerX;
+        previousY[slot] = centerY;
+        dx[slot] = velocityX;
+        dy[slot] = velocityY;
+        radius[slot] = r;
+        color[slot] = c;
+        views[slot] = view;
+        removed[slot] = false;
+        damage(slot);
+        return slot;
+    }
+
+    /**
+     * Moves a ball one step, bouncing it off the collidables on its way if necessary.
+     * The whole ball is swept along the step, so a fast ball stops exactly where it first touches
+     * a collidable instead of passing through it.
+     * The arrays are read again after every hit, since a hit may add balls and grow them.
+     *
+     * @param i the slot of the ball
+     */
+    private void move(int i) {
+        double startX = x[i];
+        double startY = y[i];
+        double vx = dx[i];
+        double vy = dy[i];
+        previousX[i] = startX;
+        previousY[i] = startY;
+        if (!environment.findClosestCollision(startX, startY, startX + vx, startY + vy, radius[i], collision)) {
+            x[i] = startX + vx;
+            y[i] = startY + vy;
+            return;
+        }
+        Collidable c = collision.collisionObject();
+        if (inside(c.getCollisionRectangle(), startX, startY)) {
+            bounceOut(i, collision);
+            return;
+        }
+        // Stop where the ball touches the collidable, just off its surface
+        double hitX = startX + collision.collisionTime() * vx;
+        double hitY = startY + collision.collisionTime() * vy;
+        double normalX = hitX - collision.getX();
+        double normalY = hitY - collision.getY();
+        double length = Math.sqrt(normalX * normalX + normalY * normalY);
+        if (length > 0) {
+            normalX /= length;
+            normalY /= length;
+        }
+        x[i] = hitX + normalX * SKIN;
+        y[i] = hitY + normalY * SKIN;
+        velocity.set(vx, vy);
+        Velocity next = c.hit(get(i), collision.collisionPoint(), velocity);
+        double nextX = next.getDx();
+        double nextY = next.getDy();
+        // On a corner the collidable may bounce the ball along the wrong axis, back into itself
+        if (nextX * normalX + nextY * normalY < 0) {
+            if (Math.abs(normalX) > Math.abs(normalY)) {
+                nextX = -nextX;
+            } else {
+                nextY = -nextY;
+            }
+        }
+        dx[i] = nextX;
+        dy[i] = nextY;
+    }
+
+    private void bounceOut(int i, CollisionInfo info) {
+        Collidable c = info.collisionObject();
+        y[i] = c.getCollisionRectangle().getUpperLeft().getY() - radius[i] - SKIN;
+        velocity.set(dx[i], dy[i]);
+        Velocity next = c.hit(get(i), info.collisionPoint(), velocity);
+        dx[i] = next.getDx();
+        dy[i] = next.getDy();
+    }
+
+    /**
+     * Reports where a ball is drawn now to the damage region, if the system is in a game.
+     */
+    private void damage(int i) {
+        if (damage != null) {
+            damage.add(x[i] - DRAWN_LEFT, y[i] - DRAWN_TOP, DRAWN_SIZE, DRAWN_SIZE);
+        }
+    }
+
+    private static boolean inside(Rectangle rect, double px, double py) {
+        double left = rect.getUpperLeft().getX();
+        double top = rect.getUpperLeft().getY();
+        return px >= left && px <= left + rect.getWidth() && py >= top && py <= top + rect.getHeight();
+    }
+
+    private void markRemoved(int slot) {
+        if (removed[slot]) {
+            return;
+        }
+        damage(slot);
+        removed[slot] = true;
+        pendingRemovals++;
+    }
+
+    /**
+     * Takes the removed balls out of the arrays, keeping the order of the others.
+     * Does nothing while balls are being moved, since their slots must not change then.
+     */
+    private void compact() {
+        if (busy > 0 || pendingRemovals == 0) {
+            return;
+        }
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed[i]) {
+                detach(i);
+                continue;
+            }
+            if (out != i) {
+                x[out] = x[i];
+                y[out] = y[i];
+                previousX[out] = previousX[i];
+                previousY[out] = previousY[i];
+                dx[out] = dx[i];
+                dy[out] = dy[i];
+                radius[out] = radius[i];
+                color[out] = color[i];
+                views[out] = views[i];
+                removed[out] = false;
+                if (views[out] != null) {
+                    views[out].moveTo(this, out);
+                }
+            }
+            out++;
+        }
+        for (int i = out; i < size; i++) {
+            color[i] = null;
+            views[i] = null;
+            removed[i] = false;
+        }
+        size = out;
+        pendingRemovals = 0;
+    }
+
+    /**
+     * Gives the object of a removed ball a system of its own, so it keeps working after the removal.
+     */
+    private void detach(int i) {
+        Ball view = views[i];
+        if (view == null) {
+            return;
+        }
+        BallSystem own = new BallSystem(environment, 1);
+        int slot = own.add(x[i], y[i], radius[i], color[i], dx[i], dy[i], view);
+        own.previousX[slot] = previousX[i];
+        own.previousY[slot] = previousY[i];
+        view.moveTo(own, slot);
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        color = Arrays.copyOf(color, capacity);
+        views = Arrays.copyOf(views, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+        mayHit = Arrays.copyOf(mayHit, capacity);
+    }
+
+    /**
+     * A task that looks up whether balls of a range of slots may hit something during their next step.
+     * It only reads the balls and the environment, so tasks can run on several threads at once.
+     */
+    private static final class Lookup extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient BallSystem system;
+        private final int from;
+        private final int to;
+
+        private Lookup(BallSystem system, int from, int to) {
+            this.system = system;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BALLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Lookup(system, from, middle), new Lookup(system, middle, to));
+                return;
+            }
+            CollisionInfo info = new CollisionInfo();
+            CollidableGrid.Cursor cursor = system.environment.newCursor();
+            for (int i = from; i < to; i++) {
+                if (!system.removed[i]) {
+                    double startX = system.x[i];
+                    double startY = system.y[i];
+                    system.mayHit[i] = system.environment.findClosestCollision(startX, startY,
+                            startX + system.dx[i], startY + system.dy[i], system.radius[i], info, cursor);
+                }
+            }
+        }
+    }
+}
@@ -4,25 +4,37 @@ import Collidables.Collidable;
 import Geometry.Line;
 import Geometry.Point;
 import Geometry.Rectangle;
+import Level.SlotMap;
 import Screens.GameLevel;
 import ListenersAndNotifier.HitListener;
+import ListenersAndNotifier.HitListenerRegistry;
 import ListenersAndNotifier.HitNotifier;
+import Rendering.DetailTier;
 import biuoop.DrawSurface;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.Image;
 
 /**
  * The Sprites.Block class represents a rectangular block that can be collided with and drawn on a surface.
  * It includes methods for handling collisions, drawing the block on a given DrawSurface, and managing hit listeners.
  */
 public class Block implements Collidable, Sprite, HitNotifier {
+    // Balls that touch a block at this height have fallen off the bottom of the screen
+    private static final int SCREEN_BOTTOM = 600;
+    private static final Color RIVET = new Color(153, 124, 22); // Color of the rivets in the corners
     private Rectangle rectangle;
     private Color color;
-    private List<HitListener> hitListeners = new ArrayList<>();
+    private HitListenerRegistry hitListeners = new HitListenerRegistry();
     private boolean specialBlock1;
     private boolean specialBlock2;
+    private Image sprite;
+    private DetailTier detail = DetailTier.FULL;
+    // The hits of the block wait in the queue of its game until the end of the tick
+    private HitEventQueue hitEvents;
+    // The handles of the block in the collidables and the sprites of its game
+    private long collidableHandle = SlotMap.NO_HANDLE;
+    private long spriteHandle = SlotMap.NO_HANDLE;
 
     /**
      * Constructs a Sprites.Block with the specified upper-left corner, width, height, and color.
@@ -44,6 +56,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void doSpecialBlock1() {
         specialBlock1 = true;
+        sprite = null;
     }
 
     /**
@@ -60,6 +73,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void doSpecialBlock2() {
         specialBlock2 = true;
+        sprite = null;
     }
 
     /**
@@ -92,7 +106,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
 
     /**
      * Handles the hit event when the ball collides with the block.
-     * Changes the velocity of the ball based on the collision point.
+     * Changes the velocity of the ball based on the collision point, in place.
      *
      * @param collisionPoint  the point where the collision occurred
      * @param currentVelocity the current velocity of the ball
@@ -105,13 +119,13 @@ public class Block implements Collidable, Sprite, HitNotifier {
         if (this.color != Color.darkGray) {
             this.notifyHit(hitter);
         }
-        if (hitter.getCenter().getY() == 598) {
+        if (collisionPoint.getY() >= SCREEN_BOTTOM) {
             hitter.notifyHit(this);
         }
         if (edges[0].onLine(collisionPoint) || edges[1].onLine(collisionPoint)) {
-            return new Velocity(currentVelocity.getDx(), -currentVelocity.getDy());
+            currentVelocity.set(currentVelocity.getDx(), -currentVelocity.getDy());
         } else if (edges[2].onLine(collisionPoint) || edges[3].onLine(collisionPoint)) {
-            return new Velocity(-currentVelocity.getDx(), currentVelocity.getDy());
+            currentVelocity.set(-currentVelocity.getDx(), currentVelocity.getDy());
         }
 
         return currentVelocity;
@@ -119,6 +133,8 @@ public class Block implements Collidable, Sprite, HitNotifier {
 
     /**
      * Draws the block on the given DrawSurface.
+     * Blocks inside the game area are copied from their image in the BlockAtlas when there is one.
+     * Below the full detail, blocks that are not copied from an image are plain rectangles.
      *
      * @param d the DrawSurface on which to draw the block
      */
@@ -126,17 +142,57 @@ public class Block implements Collidable, Sprite, HitNotifier {
     public void drawOn(DrawSurface d) {
         if (this.getCollisionRectangle().getUpperLeft().getX() == 0
                 || this.getCollisionRectangle().getUpperLeft().getX() == 770) {
-            d.setColor(color);
-            d.fillRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
-                    (int) rectangle.getWidth(), (int) rectangle.getHeight());
-            d.setColor(Color.black);
-            d.drawRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
-                    (int) rectangle.getWidth(), (int) rectangle.getHeight());
+            drawPlain(d);
         } else {
-            drawBlock(d, this.color, this.getCollisionRectangle().getUpperLeft());
+            if (sprite == null) {
+                sprite = BlockAtlas.get(color, specialBlock1 ? BlockAtlas.SPECIAL_1
+                        : specialBlock2 ? BlockAtlas.SPECIAL_2 : BlockAtlas.NORMAL);
+            }
+            if (sprite != null && BlockAtlas.isEnabled()) {
+                d.drawImage((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(), sprite);
+            } else if (detail == DetailTier.FULL) {
+                drawBlock(d, this.color, this.getCollisionRectangle().getUpperLeft());
+            } else {
+                drawPlain(d);
+            }
         }
     }
 
+    /**
+     * Returns the part of the surface the block draws on, at least 40 by 40 pixels, whatever its size.
+     *
+     * @return the bounds of the block as drawn
+     */
+    @Override
+    public Rectangle getDrawnBounds() {
+        return new Rectangle(rectangle.getUpperLeft(), Math.max(rectangle.getWidth(), 40),
+                Math.max(rectangle.getHeight(), 40));
+    }
+
+    /**
+     * Sets the tier of detail the block is drawn in.
+     *
+     * @param tier the tier of detail
+     */
+    @Override
+    public void setDetail(DetailTier tier) {
+        this.detail = tier;
+    }
+
+    /**
+     * Draws the block as a rectangle of its color with a black outline.
+     *
+     * @param d the DrawSurface on which to draw the block
+     */
+    private void drawPlain(DrawSurface d) {
+        d.setColor(color);
+        d.fillRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
+                (int) rectangle.getWidth(), (int) rectangle.getHeight());
+        d.setColor(Color.black);
+        d.drawRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
+                (int) rectangle.getWidth(), (int) rectangle.getHeight());
+    }
+
     /**
      * Draws a block with a specific design on the given DrawSurface.
      *
@@ -152,7 +208,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
         d.setColor(Color.BLACK);
         d.drawRectangle((int) x, (int) y, 40, 40);
 
-        d.setColor(new Color(153, 124, 22));
+        d.setColor(RIVET);
         d.fillCircle((int) (x + 4), (int) (y + 4), 2);
         d.fillCircle((int) (x + 4), (int) (y + 36), 2);
         d.fillCircle((int) (x + 36), (int) (y + 4), 2);
@@ -180,6 +236,16 @@ public class Block implements Collidable, Sprite, HitNotifier {
         // No behavior defined for this method in the current implementation
     }
 
+    /**
+     * Returns the layer of the block, which is not notified that time passed by default.
+     *
+     * @return the blocks layer
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.BLOCKS;
+    }
+
     /**
      * Adds the block to the game by adding it to both the collidable and sprite collections.
      *
@@ -187,8 +253,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addToGame(GameLevel g) {
-        g.addCollidable(this);
-        g.addSprite(this);
+        collidableHandle = g.addCollidable(this);
+        spriteHandle = g.addSprite(this);
+        hitEvents = g.getHitEvents();
     }
 
     /**
@@ -207,8 +274,14 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param game the game from which to remove the block
      */
     public void removeFromGame(GameLevel game) {
-        game.removeCollidable(this);
-        game.removeSprite(this);
+        game.removeCollidable(collidableHandle);
+        game.removeSprite(spriteHandle);
+        collidableHandle = SlotMap.NO_HANDLE;
+        spriteHandle = SlotMap.NO_HANDLE;
+        hitEvents = null;
+        // Blocks are drawn at least 40 by 40 pixels, whatever their size
+        game.getDamage().add(rectangle.getUpperLeft().getX(), rectangle.getUpperLeft().getY(),
+                Math.max(rectangle.getWidth(), 40), Math.max(rectangle.getHeight(), 40));
     }
 
     /**
@@ -218,7 +291,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void addHitListener(HitListener hl) {
-        hitListeners.add(hl);
+        hitListeners.addHitListener(hl);
     }
 
     /**
@@ -228,20 +301,32 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     @Override
     public void removeHitListener(HitListener hl) {
-        hitListeners.remove(hl);
+        hitListeners.removeHitListener(hl);
     }
 
     /**
-     * Notifies all registered hit listeners about a hit event.
+     * Notifies all registered hit listeners about a hit event, at the end of the tick if the block is in a game.
      *
      * @param hitter the ball that hit the block
      */
     private void notifyHit(Ball hitter) {
-        // Make a copy of the hitListeners before iterating over them.
-        List<HitListener> listeners = new ArrayList<>(this.hitListeners);
-        // Notify all listeners about a hit event:
-        for (HitListener hl : listeners) {
-            hl.hitEvent(this, hitter);
+        if (hitEvents != null) {
+            hitEvents.addBlockHit(this, hitter);
+        } else {
+            // The listeners of the hit may change meanwhile: the registry notifies those of when it began.
+            hitListeners.notifyHit(this, hitter);
+        }
+    }
+
+    /**
+     * Sends a queued hit event to the registered hit listeners, unless the block left its game
+     * since the hit, like a block hit by two balls in the same tick.
+     *
+     * @param hitter the ball that hit the block
+     */
+    void dispatchHit(Ball hitter) {
+        if (hitEvents != null) {
+            hitListeners.notifyHit(this, hitter);
         }
     }
 }
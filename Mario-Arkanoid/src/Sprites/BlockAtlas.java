@@ -0,0 +1,99 @@
+package Sprites;
+
+import Geometry.Point;
+import Rendering.ImageDrawSurface;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Sprites.BlockAtlas class keeps a ready image of the look of every kind of block:
+ * one for each color and type of block, drawn once with Block.drawBlock the first time it is needed.
+ * A block then draws itself with a single image copy instead of about fifteen drawing calls.
+ * If images cannot be made, or the atlas is turned off, blocks are drawn with Block.drawBlock as before.
+ * The atlas is shared by all the levels, including levels played on several threads at once: an image
+ * never changes once it is in the atlas, and it is drawn in full before it is put there.
+ */
+public final class BlockAtlas {
+    /**
+     * The type of a normal block.
+     */
+    public static final int NORMAL = 0;
+    /**
+     * The type of a block that removes the ball hitting it.
+     */
+    public static final int SPECIAL_1 = 1;
+    /**
+     * The type of a block that releases a new ball.
+     */
+    public static final int SPECIAL_2 = 2;
+    // Block.drawBlock fills 40 by 40 pixels and outlines them, which reaches one pixel further
+    private static final int SIZE = 41;
+
+    private static final Map<Long, BufferedImage> IMAGES = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+
+    private BlockAtlas() {
+    }
+
+    /**
+     * Turns the atlas on or off. When it is off, blocks are drawn with drawing calls.
+     *
+     * @param on true to draw blocks from images, false otherwise
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Checks whether blocks are drawn from images.
+     *
+     * @return true if the atlas is on and images can be made, false otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the image of a block of the given color and type, drawing it first if needed.
+     * All types look the same today, but each has an image of its own so they can look different.
+     *
+     * @param color the color of the block
+     * @param type  the type of the block: NORMAL, SPECIAL_1 or SPECIAL_2
+     * @return the image of the block, or null if blocks must be drawn with drawing calls
+     */
+    public static BufferedImage get(Color color, int type) {
+        if (!enabled) {
+            return null;
+        }
+        long key = ((long) color.getRGB() << 2) | type;
+        BufferedImage image = IMAGES.get(key);
+        if (image == null) {
+            try {
+                ImageDrawSurface surface = new ImageDrawSurface(SIZE, SIZE, false);
+                Block.drawBlock(surface, color, new Point(0, 0));
+                surface.dispose();
+                image = surface.getImage();
+            } catch (RuntimeException | LinkageError e) {
+                // No image support on this platform: draw every block with drawing calls from now on
+                enabled = false;
+                return null;
+            }
+            // Another thread may have drawn the same image meanwhile: every thread keeps the first one
+            BufferedImage first = IMAGES.putIfAbsent(key, image);
+            if (first != null) {
+                image = first;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Drops all the images, so they are drawn again the next time they are needed.
+     */
+    public static void clear() {
+        IMAGES.clear();
+    }
+}
@@ -0,0 +1,79 @@
+package Sprites;
+
+import java.util.Arrays;
+
+/**
+ * The Sprites.HitEventQueue class holds the hit events of a tick until the tick is over, so the listeners
+ * remove blocks and balls, release new balls and count the score all together once nothing is moving.
+ * While the balls move, the blocks and balls of the game stay as they were when the tick began:
+ * a block hit by two balls in the same tick bounces both of them, and only the first of its hits
+ * reaches its listeners, since the block is gone by the time the second one is sent.
+ * The events are kept in arrays reused from tick to tick, and are sent in the order they happened.
+ * Events added while the queue is being flushed, like the hits listeners report themselves,
+ * are sent in the same flush, after the others.
+ */
+public class HitEventQueue {
+    private static final int DEFAULT_CAPACITY = 8;
+    private Block[] blocks = new Block[DEFAULT_CAPACITY];
+    private Ball[] balls = new Ball[DEFAULT_CAPACITY];
+    // Whether the event goes to the listeners of the ball, rather than to the listeners of the block
+    private boolean[] ballHits = new boolean[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * Adds a hit event for the listeners of a block.
+     *
+     * @param beingHit the block that was hit
+     * @param hitter   the ball that hit the block
+     */
+    void addBlockHit(Block beingHit, Ball hitter) {
+        add(beingHit, hitter, false);
+    }
+
+    /**
+     * Adds a hit event for the listeners of a ball.
+     *
+     * @param ball   the ball whose listeners are notified
+     * @param hitter the block that was hit
+     */
+    void addBallHit(Ball ball, Block hitter) {
+        add(hitter, ball, true);
+    }
+
+    /**
+     * Sends all the events to their listeners, in the order they were added, and empties the queue.
+     */
+    public void flush() {
+        for (int i = 0; i < size; i++) {
+            if (ballHits[i]) {
+                balls[i].dispatchHit(blocks[i]);
+            } else {
+                blocks[i].dispatchHit(balls[i]);
+            }
+        }
+        Arrays.fill(blocks, 0, size, null);
+        Arrays.fill(balls, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of events waiting for the end of the tick.
+     *
+     * @return the number of events in the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    private void add(Block block, Ball ball, boolean ballHit) {
+        if (size == blocks.length) {
+            blocks = Arrays.copyOf(blocks, size * 2);
+            balls = Arrays.copyOf(balls, size * 2);
+            ballHits = Arrays.copyOf(ballHits, size * 2);
+        }
+        blocks[size] = block;
+        balls[size] = ball;
+        ballHits[size] = ballHit;
+        size++;
+    }
+}
@@ -0,0 +1,228 @@
+package Sprites;
+
+import Level.Counter;
+import Level.CounterSnapshot;
+import Level.SlotMap;
+import Level.StripedCounter;
+import Rendering.DamageRegion;
+import Rendering.LayerCache;
+import Screens.GameLevel;
+import biuoop.DrawSurface;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Sprites.Hud class is a strip at the top of the screen that shows lines of text, such as the score.
+ * The strip, its border and all its texts are drawn once into a cached image, which every frame only copies,
+ * so the texts cost nothing per frame however many there are.
+ * The image is drawn again only when a text changes: texts that show a Level.Counter follow it by themselves,
+ * and any other text is changed by calling invalidate(). A Level.StripedCounter, changed by several threads
+ * at once, is shown as it was last published: the strip reads its Level.CounterSnapshot every tick and
+ * compares it to the count it shows, which costs a single volatile read.
+ * Once in a game, every change of the strip is reported to the damage region of the game.
+ * A counter may outlive the strip, like the score shared by all the levels, so removing the strip
+ * from its game also stops it from following its counters.
+ */
+public class Hud implements Sprite {
+    private int width;
+    private int height;
+    private List<Item> items = new ArrayList<>();
+    // The texts that show the snapshots of counters changed by several threads at once
+    private List<Item> polled = new ArrayList<>();
+    private LayerCache layer;
+    private DamageRegion damage;
+    private long spriteHandle = SlotMap.NO_HANDLE;
+
+    /**
+     * Constructs an empty Hud strip of the given size at the top left corner of the screen.
+     *
+     * @param width  the width of the strip
+     * @param height the height of the strip
+     */
+    public Hud(int width, int height) {
+        this.width = width;
+        this.height = height;
+        // The border is drawn around the strip, one pixel past its width and height
+        this.layer = new LayerCache(width + 1, height + 1, false, this::paint);
+    }
+
+    /**
+     * Adds a text to the strip, which is drawn again only when invalidate() is called.
+     *
+     * @param x        the left side of the text
+     * @param y        the base line of the text
+     * @param fontSize the size of the font
+     * @param text     gives the text to show
+     */
+    public void addText(int x, int y, int fontSize, Text text) {
+        items.add(new Item(x, y, fontSize, text));
+        invalidate();
+    }
+
+    /**
+     * Adds a text that shows a counter to the strip, which is drawn again whenever the counter changes,
+     * or whenever a changed count is published, for a Level.StripedCounter.
+     *
+     * @param counter  the counter the text shows
+     * @param x        the left side of the text
+     * @param y        the base line of the text
+     * @param fontSize the size of the font
+     * @param text     gives the text to show
+     */
+    public void addCounter(Counter counter, int x, int y, int fontSize, Text text) {
+        addText(x, y, fontSize, text);
+        Item item = items.get(items.size() - 1);
+        if (counter instanceof StripedCounter) {
+            item.snapshot = ((StripedCounter) counter).getSnapshot();
+            item.shown = item.snapshot.getValue();
+            polled.add(item);
+        } else {
+            item.counter = counter;
+            item.listener = (changed, oldValue) -> invalidate();
+            counter.addListener(item.listener);
+        }
+    }
+
+    /**
+     * Chooses whether the images of the strip may still be read by another thread after they are drawn,
+     * so that every change of the strip is drawn into a new image instead of the same one.
+     *
+     * @param shared true if the images are read by another thread, false otherwise
+     */
+    public void setShared(boolean shared) {
+        layer.setShared(shared);
+    }
+
+    /**
+     * Makes the strip draw all its texts again before it is next drawn.
+     */
+    public void invalidate() {
+        layer.invalidate();
+        if (damage != null) {
+            damage.add(0, 0, width + 1, height + 1);
+        }
+    }
+
+    /**
+     * Draws the strip on the given DrawSurface.
+     *
+     * @param d the DrawSurface on which to draw the strip
+     */
+    @Override
+    public void drawOn(DrawSurface d) {
+        layer.drawOn(d);
+    }
+
+    /**
+     * Draws the strip again if the published count of a counter changed by several threads is not the one shown.
+     * Otherwise performs no action, since the strip only changes when its texts do.
+     */
+    @Override
+    public void timePassed() {
+        for (int i = 0; i < polled.size(); i++) {
+            Item item = polled.get(i);
+            int value = item.snapshot.getValue();
+            if (value != item.shown) {
+                item.shown = value;
+                invalidate();
+            }
+        }
+    }
+
+    /**
+     * Returns the layer of the strip, drawn in front of the game.
+     *
+     * @return the HUD layer
+     */
+    @Override
+    public SpriteLayer getLayer() {
+        return SpriteLayer.HUD;
+    }
+
+    /**
+     * Adds the strip to the game as a sprite, and reports its changes to the damage region of the game.
+     *
+     * @param g the game to which the strip will be added
+     */
+    @Override
+    public void addToGame(GameLevel g) {
+        spriteHandle = g.addSprite(this);
+        damage = g.getDamage();
+    }
+
+    /**
+     * Removes the strip from the game, and stops it from following its counters,
+     * so a counter that outlives the game no longer keeps the strip.
+     * The place of the strip is reported to the damage region, as what is under it shows again.
+     * Does nothing if the strip was already removed.
+     *
+     * @param g the game from which to remove the strip
+     */
+    public void removeFromGame(GameLevel g) {
+        g.removeSprite(spriteHandle);
+        spriteHandle = SlotMap.NO_HANDLE;
+        if (damage != null) {
+            damage.add(0, 0, width + 1, height + 1);
+        }
+        damage = null;
+        for (Item item : items) {
+            if (item.listener != null) {
+                item.counter.removeListener(item.listener);
+                item.listener = null;
+            }
+        }
+    }
+
+    /**
+     * Draws the strip and all its texts into the cached image.
+     *
+     * @param d the surface of the cached image
+     */
+    private void paint(DrawSurface d) {
+        d.setColor(Color.white);
+        d.fillRectangle(0, 0, width, height);
+        d.setColor(Color.black);
+        d.drawRectangle(0, 0, width, height);
+        for (Item item : items) {
+            d.drawText(item.x, item.y, item.text.text(), item.fontSize);
+        }
+    }
+
+    /**
+     * Gives the current text of an element of the strip.
+     */
+    public interface Text {
+
+        /**
+         * Returns the text to show now.
+         *
+         * @return the text
+         */
+        String text();
+    }
+
+    /**
+     * A text of the strip and where it is drawn.
+     */
+    private static class Item {
+        private int x;
+        private int y;
+        private int fontSize;
+        private Text text;
+        // The counter the text shows and the listener added to it, if it is changed by one thread
+        private Counter counter;
+        private Counter.Listener listener;
+        // The snapshot the text shows and the count shown, if its counter is changed by several threads
+        private CounterSnapshot snapshot;
+        private int shown;
+
+        Item(int x, int y, int fontSize, Text text) {
+            this.x = x;
+            this.y = y;
+            this.fontSize = fontSize;
+            this.text = text;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package Sprites;
 
 import Collidables.Collidable;
-import Geometry.Line;
 import Geometry.Point;
 import Geometry.Rectangle;
+import Level.GameEnvironment;
 import Level.LevelInformation;
+import Rendering.DamageRegion;
 import Screens.GameLevel;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
@@ -16,9 +17,14 @@ import java.awt.Color;
  * It implements the Sprite and Collidable interfaces, allowing it to be drawn and to respond to collisions.
  */
 public class Paddle implements Sprite, Collidable {
+    // How far the paddle moves in one step
+    private static final int MOVE = 15;
     private biuoop.KeyboardSensor keyboard;
     private Rectangle rectangle;
+    private double previousX;
     private LevelInformation levelInformation;
+    private GameEnvironment environment;
+    private DamageRegion damage;
 
     /**
      * Constructs a Paddle with the given keyboard sensor and level information.
@@ -30,61 +36,63 @@ public class Paddle implements Sprite, Collidable {
         this.keyboard = keyboard;
         this.levelInformation = levelInformation;
         rectangle = new Rectangle(new Point(290, 557), levelInformation.paddleWidth(), 13);
+        previousX = rectangle.getUpperLeft().getX();
     }
 
     /**
      * Moves the paddle to the left, ensuring it stays within game boundaries.
      */
     public void moveLeft() {
-        this.rectangle.setUpperLeft(new Point(this.rectangle.getUpperLeft().getX() - 15,
-                this.rectangle.getUpperLeft().getY()));
+        this.damage();
+        double x = this.rectangle.getUpperLeft().getX() - MOVE;
         // Prevent the paddle from moving off the left side
-        if (this.rectangle.getUpperLeft().getX() + this.rectangle.getWidth() <= 30) {
-            this.rectangle.setUpperLeft(new Point(770 - this.rectangle.getWidth(),
-                    this.rectangle.getUpperLeft().getY()));
+        if (x + this.rectangle.getWidth() <= 30) {
+            x = 770 - this.rectangle.getWidth();
         }
-        this.createEdges();
+        this.rectangle.moveTo(x, this.rectangle.getUpperLeft().getY());
+        this.notifyMoved();
     }
 
     /**
      * Moves the paddle to the right, ensuring it stays within game boundaries.
      */
     public void moveRight() {
-        this.rectangle.setUpperLeft(new Point(this.rectangle.getUpperLeft().getX() + 15,
-                this.rectangle.getUpperLeft().getY()));
+        this.damage();
+        double x = this.rectangle.getUpperLeft().getX() + MOVE;
         // Prevent the paddle from moving off the right side
-        if (this.rectangle.getUpperLeft().getX() >= 770) {
-            this.rectangle.setUpperLeft(new Point(30, this.rectangle.getUpperLeft().getY()));
+        if (x >= 770) {
+            x = 30;
         }
-        this.createEdges();
+        this.rectangle.moveTo(x, this.rectangle.getUpperLeft().getY());
+        this.notifyMoved();
     }
 
     /**
-     * Creates the edges of the paddle's rectangle for collision detection.
+     * Lets the game environment know that the paddle moved, so collisions are checked at its new place,
+     * and reports its new place to the damage region of the game.
      */
-    public void createEdges() {
-        Line[] edges = new Line[4];
-        // Create the four edges of the paddle's rectangle
-        edges[0] = new Line(this.rectangle.getUpperLeft(), new Point(this.rectangle.getUpperLeft().getX()
-                + this.rectangle.getWidth(),
-                this.rectangle.getUpperLeft().getY())); // Upper edge
-        edges[1] = new Line(new Point(this.rectangle.getUpperLeft().getX(), this.rectangle.getUpperLeft().getY()
-                + this.rectangle.getHeight()),
-                new Point(this.rectangle.getUpperLeft().getX() + this.rectangle.getWidth(),
-                        this.rectangle.getUpperLeft().getY() + this.rectangle.getHeight())); // Lower edge
-        edges[2] = new Line(new Point(this.rectangle.getUpperLeft().getX() + this.rectangle.getWidth(),
-                this.rectangle.getUpperLeft().getY()),
-                new Point(this.rectangle.getUpperLeft().getX() + this.rectangle.getWidth(),
-                        this.rectangle.getUpperLeft().getY() + this.rectangle.getHeight())); // Right edge
-        edges[3] = new Line(this.rectangle.getUpperLeft(), new Point(this.rectangle.getUpperLeft().getX(),
-                this.rectangle.getUpperLeft().getY() + this.rectangle.getHeight())); // Left edge
-        this.rectangle.setEdges(edges);
+    private void notifyMoved() {
+        if (this.environment != null) {
+            this.environment.updateCollidable(this);
+        }
+        this.damage();
+    }
+
+    /**
+     * Reports where the paddle is drawn now to the damage region of the game, if it is in a game.
+     */
+    private void damage() {
+        if (this.damage != null) {
+            this.damage.add(rectangle.getUpperLeft().getX(), rectangle.getUpperLeft().getY(),
+                    rectangle.getWidth(), rectangle.getHeight());
+        }
     }
 
     /**
      * Updates the paddle's position based on the pressed keys.
      */
     public void timePassed() {
+        previousX = this.rectangle.getUpperLeft().getX();
         if (keyboard.isPressed(KeyboardSensor.LEFT_KEY)) {
             moveLeft();
         }
@@ -99,11 +107,31 @@ public class Paddle implements Sprite, Collidable {
      * @param d the DrawSurface to draw the paddle on
      */
     public void drawOn(DrawSurface d) {
+        drawAt(d, rectangle.getUpperLeft().getX());
+    }
+
+    /**
+     * Draws the paddle on the given DrawSurface, between where it was before the last time
+     * it was moved and where it is now. A paddle that wrapped around the screen is drawn where it is.
+     *
+     * @param d     the DrawSurface to draw the paddle on
+     * @param alpha how far to go from the previous position to the current one, between 0 and 1
+     */
+    @Override
+    public void drawOn(DrawSurface d, double alpha) {
+        double x = rectangle.getUpperLeft().getX();
+        if (Math.abs(x - previousX) <= MOVE) {
+            x = previousX + (x - previousX) * alpha;
+        }
+        drawAt(d, x);
+    }
+
+    private void drawAt(DrawSurface d, double x) {
         d.setColor(Color.CYAN);
-        d.fillRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
+        d.fillRectangle((int) x, (int) rectangle.getUpperLeft().getY(),
                 (int) rectangle.getWidth(), (int) rectangle.getHeight());
         d.setColor(Color.black);
-        d.drawRectangle((int) rectangle.getUpperLeft().getX(), (int) rectangle.getUpperLeft().getY(),
+        d.drawRectangle((int) x, (int) rectangle.getUpperLeft().getY(),
                 (int) rectangle.getWidth(), (int) rectangle.getHeight());
     }
 
@@ -117,7 +145,7 @@ public class Paddle implements Sprite, Collidable {
     }
 
     /**
-     * Handles the hit on the paddle and changes the ball's velocity accordingly.
+     * Handles the hit on the paddle and changes the ball's velocity accordingly, in place.
      *
      * @param hitter          the ball that hit the paddle
      * @param collisionPoint  the point where the collision occurs
@@ -135,27 +163,28 @@ public class Paddle implements Sprite, Collidable {
         // Determine which region the collision occurred in and change velocity accordingly
         if (x >= 2 * region + getCollisionRectangle().getUpperLeft().getX() && x < 3 * region
                 + getCollisionRectangle().getUpperLeft().getX()) {
-            return new Velocity(dx, -dy); // Straight up for the middle region
+            currentVelocity.set(dx, -dy); // Straight up for the middle region
+            return currentVelocity;
         }
         // Region 1
         if (x >= getCollisionRectangle().getUpperLeft().getX() && x < region
                 + getCollisionRectangle().getUpperLeft().getX()) {
-            currentVelocity.setVelocity(Velocity.fromAngleAndSpeed(300, speed));
+            currentVelocity.setAngleAndSpeed(300, speed);
         }
         // Region 2
         else if (x >= region + getCollisionRectangle().getUpperLeft().getX() && x < 2 * region
                 + getCollisionRectangle().getUpperLeft().getX()) {
-            currentVelocity.setVelocity(Velocity.fromAngleAndSpeed(330, speed));
+            currentVelocity.setAngleAndSpeed(330, speed);
         }
         // Region 4
         else if (x >= 3 * region + getCollisionRectangle().getUpperLeft().getX() && x < 4 * region
                 + getCollisionRectangle().getUpperLeft().getX()) {
-            currentVelocity.setVelocity(Velocity.fromAngleAndSpeed(30, speed));
+            currentVelocity.setAngleAndSpeed(30, speed);
         }
         // Region 5
         else if (x >= 4 * region + getCollisionRectangle().getUpperLeft().getX() && x < 5 * region
                 + getCollisionRectangle().getUpperLeft().getX()) {
-            currentVelocity.setVelocity(Velocity.fromAngleAndSpeed(60, speed));
+            currentVelocity.setAngleAndSpeed(60, speed);
         }
         return currentVelocity;
     }
@@ -168,5 +197,7 @@ public class Paddle implements Sprite, Collidable {
     public void addToGame(GameLevel g) {
         g.addSprite(this);
         g.addCollidable(this);
+        this.environment = g.getEnvironment();
+        this.damage = g.getDamage();
     }
 }
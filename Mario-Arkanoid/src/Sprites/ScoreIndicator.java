@@ -2,16 +2,13 @@ package Sprites;
 
 import Level.Counter;
 import Level.LevelInformation;
-import Screens.GameLevel;
-import biuoop.DrawSurface;
-
-import java.awt.Color;
 
 /**
- * The ScoreIndicator class implements the Sprite interface to display the current game score
- * on the game screen, along with the current level name.
+ * The ScoreIndicator class is the Hud strip of the game screen, which shows the current game score
+ * along with the current level name.
+ * The strip is drawn again only when the score changes.
  */
-public class ScoreIndicator implements Sprite {
+public class ScoreIndicator extends Hud {
     private Counter score;
     private LevelInformation levelInformation;
 
@@ -22,50 +19,21 @@ public class ScoreIndicator implements Sprite {
      * @param levelInformation the information about the current level
      */
     public ScoreIndicator(Counter score, LevelInformation levelInformation) {
+        super(800, 20);
         this.score = score;
         this.levelInformation = levelInformation;
+        addCounter(score, 275, 15, 15, this::toString); // The score and level name text
     }
 
     /**
      * Returns a string representation of the score indicator, including the current score and level name.
+     * The score is the one its listeners were last told of, so a score shared by several threads shows
+     * the count it was last published with, the same one the strip was drawn again for.
      *
      * @return a string showing the current score and level name
      */
     @Override
     public String toString() {
-        return "Score: " + score.getValue()
-                + "  Level Name: " + levelInformation.levelName();
-    }
-
-    /**
-     * Draws the score indicator on the given DrawSurface.
-     *
-     * @param d the DrawSurface on which to draw the score indicator
-     */
-    @Override
-    public void drawOn(DrawSurface d) {
-        d.setColor(Color.white);
-        d.fillRectangle(0, 0, 800, 20); // Draw background for the score indicator
-        d.setColor(Color.black);
-        d.drawRectangle(0, 0, 800, 20); // Draw border for the score indicator
-        d.drawText(275, 15, this.toString(), 15); // Draw the score and level name text
-    }
-
-    /**
-     * Performs no action for the time passed event in this implementation.
-     */
-    @Override
-    public void timePassed() {
-        // No action needed for timePassed in this class
-    }
-
-    /**
-     * Adds the score indicator to the game by registering it as a sprite.
-     *
-     * @param g the game to which the score indicator will be added
-     */
-    @Override
-    public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        return "Score: " + score.getPublishedValue() + "  Level Name: " + levelInformation.levelName();
     }
 }
@@ -1,4 +1,6 @@
 package Sprites;
+import Geometry.Rectangle;
+import Rendering.DetailTier;
 import Screens.GameLevel;
 import biuoop.DrawSurface;
 
@@ -14,6 +16,46 @@ public interface Sprite {
      */
     void drawOn(DrawSurface d);
 
+    /**
+     * Draws the sprite between its state before the last time it was notified that time passed
+     * and its current state. Sprites that do not move smoothly are drawn in their current state.
+     *
+     * @param d     the DrawSurface on which to draw the sprite
+     * @param alpha how far to go from the previous state to the current one, between 0 and 1
+     */
+    default void drawOn(DrawSurface d, double alpha) {
+        drawOn(d);
+    }
+
+    /**
+     * Sets the tier of detail the sprite is drawn in. Sprites that are cheap to draw ignore it,
+     * which is what this method does by default.
+     *
+     * @param tier the tier of detail
+     */
+    default void setDetail(DetailTier tier) {
+    }
+
+    /**
+     * Returns the layer of the scene the sprite is drawn in. Sprites are entities by default.
+     *
+     * @return the layer of the sprite
+     */
+    default SpriteLayer getLayer() {
+        return SpriteLayer.ENTITIES;
+    }
+
+    /**
+     * Returns the part of the surface the sprite draws on. A layer drawn from a cached image only draws
+     * this part of the image again when the sprite is added or removed. Sprites that cannot tell
+     * return null, which is what this method does by default, and the whole image is drawn again.
+     *
+     * @return the bounds of the sprite as drawn, or null if they are not known
+     */
+    default Rectangle getDrawnBounds() {
+        return null;
+    }
+
     /**
      * Notifies the sprite that time has passed, so it can update its state.
      */
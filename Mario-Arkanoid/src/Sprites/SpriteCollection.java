@@ -1,16 +1,34 @@
 package Sprites;
 
+import Geometry.Rectangle;
+import Level.SlotMap;
+import Rendering.DetailTier;
+import Rendering.LayerCache;
 import biuoop.DrawSurface;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * The Sprites.SpriteCollection class represents a collection of sprites.
  * It manages adding sprites, updating their state, and drawing them.
+ * All its sprites are drawn in the same tier of detail, including sprites added later.
+ * Every sprite goes into the SpriteLayer it asks for, and the layers are drawn one after the other,
+ * from the background to the overlay. Every layer can stop being notified that time passed,
+ * stop being drawn, or be drawn from a cached image that is only drawn again where its sprites change.
+ * The sprites of a layer are kept in a SlotMap, in the order they were added, and a sprite is removed
+ * in constant time with the handle it got when it was added.
  */
 public class SpriteCollection {
-    private List<Sprite> sprites;
+    private static final SpriteLayer[] LAYERS = SpriteLayer.values();
+    // The layer of a sprite is kept in the highest byte of its handle, which the SlotMap leaves free
+    private static final int LAYER_SHIFT = 56;
+    private static final long SLOT_MAP_HANDLE = (1L << LAYER_SHIFT) - 1;
+
+    private Layer[] layers = new Layer[LAYERS.length];
+    // The end of every layer when a pass began, reused from pass to pass
+    private int[] counts = new int[LAYERS.length];
+    private DetailTier detail = DetailTier.FULL;
+    private boolean shared;
 
     /**
      * Constructs a Sprites.SpriteCollection with the given list of sprites.
@@ -18,48 +36,288 @@ public class SpriteCollection {
      * @param sprites the list of sprites to initialize the collection
      */
     public SpriteCollection(List<Sprite> sprites) {
-        this.sprites = sprites;
+        for (SpriteLayer layer : LAYERS) {
+            layers[layer.ordinal()] = new Layer(layer.isUpdatedByDefault());
+        }
+        for (Sprite s : sprites) {
+            addSprite(s);
+        }
     }
 
     /**
-     * Adds a sprite to the collection.
+     * Adds a sprite to the end of its layer.
      *
      * @param s the sprite to add
+     * @return the handle that removes the sprite with removeSprite(long)
      */
-    public void addSprite(Sprite s) {
-        sprites.add(s);
+    public long addSprite(Sprite s) {
+        int layer = s.getLayer().ordinal();
+        long handle = layers[layer].sprites.add(s);
+        if (detail != DetailTier.FULL) {
+            s.setDetail(detail);
+        }
+        layers[layer].invalidate(s);
+        return handle | ((long) layer << LAYER_SHIFT);
     }
 
     /**
-     * Notifies all sprites in the collection that time has passed.
-     * This method calls timePassed() on all sprites.
+     * Sets the tier of detail of all the sprites in the collection, and of the sprites added later.
+     *
+     * @param tier the tier of detail
      */
-    public void notifyAllTimePassed() {
-        List<Sprite> spriteList = new ArrayList<>(this.sprites);
+    public void setDetail(DetailTier tier) {
+        this.detail = tier;
+        for (Layer layer : layers) {
+            for (int i = 0; i < layer.sprites.end(); i++) {
+                Sprite s = layer.sprites.at(i);
+                if (s != null) {
+                    s.setDetail(tier);
+                }
+            }
+            layer.invalidate();
+        }
+    }
+
+    /**
+     * Returns the tier of detail of the sprites in the collection.
+     *
+     * @return the tier of detail
+     */
+    public DetailTier getDetail() {
+        return detail;
+    }
+
+    /**
+     * Chooses whether the sprites of a layer are notified that time passed.
+     *
+     * @param layer   the layer
+     * @param updated true to notify its sprites, false to skip them
+     */
+    public void setUpdated(SpriteLayer layer, boolean updated) {
+        layers[layer.ordinal()].updated = updated;
+    }
+
+    /**
+     * Indicates whether the sprites of a layer are notified that time passed.
+     *
+     * @param layer the layer
+     * @return true if its sprites are notified, false otherwise
+     */
+    public boolean isUpdated(SpriteLayer layer) {
+        return layers[layer.ordinal()].updated;
+    }
+
+    /**
+     * Chooses whether the sprites of a layer are drawn.
+     *
+     * @param layer the layer
+     * @param drawn true to draw its sprites, false to leave them out
+     */
+    public void setDrawn(SpriteLayer layer, boolean drawn) {
+        layers[layer.ordinal()].drawn = drawn;
+    }
+
+    /**
+     * Indicates whether the sprites of a layer are drawn.
+     *
+     * @param layer the layer
+     * @return true if its sprites are drawn, false otherwise
+     */
+    public boolean isDrawn(SpriteLayer layer) {
+        return layers[layer.ordinal()].drawn;
+    }
 
-        for (Sprite sprite : spriteList) {
-            sprite.timePassed();
+    /**
+     * Chooses whether a layer is drawn from a cached image of the given size, instead of drawing its sprites.
+     * The part of the image a sprite draws on is drawn again whenever the sprite is added to the layer or removed
+     * from it, and the whole image when the sprite cannot tell that part or the tier of detail changes,
+     * so only layers whose sprites never change by themselves should be cached.
+     *
+     * @param layer  the layer
+     * @param cached true to draw the layer from a cached image, false to draw its sprites every time
+     * @param width  the width of the image, from the left of the surface
+     * @param height the height of the image, from the top of the surface
+     */
+    public void setCached(SpriteLayer layer, boolean cached, int width, int height) {
+        Layer l = layers[layer.ordinal()];
+        l.cache = cached ? new LayerCache(width, height, true, l::drawSprites) : null;
+        if (l.cache != null) {
+            l.cache.setShared(shared);
         }
     }
 
     /**
-     * Draws all sprites in the collection on the given DrawSurface.
-     * This method calls drawOn(d) on all sprites.
+     * Chooses whether the cached images of the layers may still be read by another thread
+     * after they are drawn, such as a render thread showing earlier frames. Such images never change,
+     * and every change of a cached layer is drawn into a copy of its image instead.
+     *
+     * @param shared true if the images are read by another thread, false otherwise
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+        for (Layer layer : layers) {
+            if (layer.cache != null) {
+                layer.cache.setShared(shared);
+            }
+        }
+    }
+
+    /**
+     * Indicates whether a layer is drawn from a cached image.
+     *
+     * @param layer the layer
+     * @return true if the layer is drawn from a cached image, false otherwise
+     */
+    public boolean isCached(SpriteLayer layer) {
+        return layers[layer.ordinal()].cache != null;
+    }
+
+    /**
+     * Notifies the sprites of the updated layers that time has passed, from the background to the overlay.
+     * The sprites are read straight from the arrays of the layers, without copying them.
+     * While they are notified, removed sprites only leave holes and added sprites go after the end,
+     * and the arrays are packed once the pass is over, so no sprite changes position during the pass.
+     * Sprites added meanwhile are only notified from the next time on, and sprites removed
+     * meanwhile are not notified if their turn did not come yet.
+     */
+    public void notifyAllTimePassed() {
+        for (int l = 0; l < layers.length; l++) {
+            layers[l].sprites.beginIteration();
+            counts[l] = layers[l].sprites.end();
+        }
+        try {
+            for (int l = 0; l < layers.length; l++) {
+                if (!layers[l].updated) {
+                    continue;
+                }
+                SlotMap<Sprite> sprites = layers[l].sprites;
+                for (int i = 0; i < counts[l]; i++) {
+                    Sprite s = sprites.at(i);
+                    if (s != null) {
+                        s.timePassed();
+                    }
+                }
+            }
+        } finally {
+            for (Layer layer : layers) {
+                layer.sprites.endIteration();
+            }
+        }
+    }
+
+    /**
+     * Draws the sprites of the drawn layers on the given DrawSurface, from the background to the overlay.
+     * This method calls drawOn(d) on all their sprites, or copies their cached image.
      *
      * @param d the DrawSurface on which to draw the sprites
      */
     public void drawAllOn(DrawSurface d) {
-        for (Sprite sprite : sprites) {
-            sprite.drawOn(d);
+        for (Layer layer : layers) {
+            if (!layer.drawn) {
+                continue;
+            }
+            if (layer.cache != null) {
+                layer.cache.drawOn(d);
+            } else {
+                layer.drawSprites(d);
+            }
+        }
+    }
+
+    /**
+     * Draws the sprites of the drawn layers on the given DrawSurface, between their previous
+     * and current states. This method calls drawOn(d, alpha) on all their sprites,
+     * or copies their cached image.
+     *
+     * @param d     the DrawSurface on which to draw the sprites
+     * @param alpha how far to go from the previous states to the current ones, between 0 and 1
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        for (Layer layer : layers) {
+            if (!layer.drawn) {
+                continue;
+            }
+            if (layer.cache != null) {
+                layer.cache.drawOn(d);
+                continue;
+            }
+            for (int i = 0; i < layer.sprites.end(); i++) {
+                Sprite s = layer.sprites.at(i);
+                if (s != null) {
+                    s.drawOn(d, alpha);
+                }
+            }
         }
     }
 
     /**
-     * Removes a sprite from the collection.
+     * Removes a sprite from the collection, looking for it among all the sprites.
      *
      * @param s the sprite to remove
      */
     public void removeSpriteFromCollection(Sprite s) {
-        sprites.remove(s);
+        for (Layer layer : layers) {
+            if (layer.sprites.removeItem(s)) {
+                layer.invalidate(s);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the sprite with the given handle from the collection, in constant time.
+     * Does nothing if it was already removed.
+     *
+     * @param handle the handle the sprite got when it was added
+     */
+    public void removeSprite(long handle) {
+        Layer layer = layers[(int) (handle >>> LAYER_SHIFT)];
+        Sprite s = layer.sprites.get(handle & SLOT_MAP_HANDLE);
+        if (s != null) {
+            layer.sprites.remove(handle & SLOT_MAP_HANDLE);
+            layer.invalidate(s);
+        }
+    }
+
+    /**
+     * The sprites of a layer, and how they are updated and drawn.
+     */
+    private static class Layer {
+        private SlotMap<Sprite> sprites = new SlotMap<>();
+        private boolean updated;
+        private boolean drawn = true;
+        private LayerCache cache;
+
+        Layer(boolean updated) {
+            this.updated = updated;
+        }
+
+        private void drawSprites(DrawSurface d) {
+            for (int i = 0; i < sprites.end(); i++) {
+                Sprite s = sprites.at(i);
+                if (s != null) {
+                    s.drawOn(d);
+                }
+            }
+        }
+
+        private void invalidate() {
+            if (cache != null) {
+                cache.invalidate();
+            }
+        }
+
+        private void invalidate(Sprite s) {
+            if (cache == null) {
+                return;
+            }
+            Rectangle bounds = s.getDrawnBounds();
+            if (bounds == null) {
+                cache.invalidate();
+            } else {
+                cache.invalidate(bounds.getUpperLeft().getX(), bounds.getUpperLeft().getY(),
+                        bounds.getWidth(), bounds.getHeight());
+            }
+        }
     }
 }
@@ -0,0 +1,45 @@
+package Sprites;
+
+/**
+ * The Sprites.SpriteLayer enum lists the layers of the scene, from the one drawn first, at the back,
+ * to the one drawn last, in front of all the others.
+ * Every sprite belongs to a layer, and within a layer sprites are drawn in the order they were added.
+ * Layers whose sprites never change by themselves are not notified that time passed by default.
+ */
+public enum SpriteLayer {
+    /**
+     * The background of the level.
+     */
+    BACKGROUND(true),
+    /**
+     * The blocks, which only change when they are added or removed.
+     */
+    BLOCKS(false),
+    /**
+     * The sprites that move, like the paddle and the balls. Sprites are in this layer by default.
+     */
+    ENTITIES(true),
+    /**
+     * The strips that show the state of the game, like the score.
+     */
+    HUD(true),
+    /**
+     * Anything drawn on top of the whole game.
+     */
+    OVERLAY(true);
+
+    private final boolean updated;
+
+    SpriteLayer(boolean updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Indicates whether the sprites of the layer are notified that time passed, unless chosen otherwise.
+     *
+     * @return true if the sprites of the layer are updated by default, false otherwise
+     */
+    public boolean isUpdatedByDefault() {
+        return updated;
+    }
+}
@@ -30,6 +30,28 @@ public class Velocity {
         this.dy = v.getDy();
     }
 
+    /**
+     * Sets the velocity to the given components, in place.
+     *
+     * @param newDx the new horizontal component
+     * @param newDy the new vertical component
+     */
+    public void set(double newDx, double newDy) {
+        this.dx = newDx;
+        this.dy = newDy;
+    }
+
+    /**
+     * Sets the velocity from an angle and speed, in place.
+     *
+     * @param angle the angle in degrees
+     * @param speed the speed
+     */
+    public void setAngleAndSpeed(double angle, double speed) {
+        this.dx = speed * Math.sin(Math.toRadians(angle));
+        this.dy = -(speed * Math.cos(Math.toRadians(angle)));
+    }
+
     /**
      * Creates a Sprites.Velocity instance from an angle and speed.
      *